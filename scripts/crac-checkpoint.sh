@@ -0,0 +1,26 @@
+#!/bin/sh
+# Build the crac image and bake a post-warm-up checkpoint into cce-collector-service:crac.
+#
+# The checkpoint runs against real PostgreSQL and Kafka (docker-compose.yml by default, on the host
+# network). Configuration is resolved before the checkpoint and NOT re-read on restore, so take it
+# with the addresses and credentials the restored containers will use — and treat the resulting
+# image as containing those secrets.
+#
+# Extra docker run options (e.g. -e SPRING_DATASOURCE_URL=...) can be passed as arguments.
+set -e
+
+BASE_IMAGE=${BASE_IMAGE:-cce-collector-service:crac-base}
+IMAGE=${IMAGE:-cce-collector-service:crac}
+CONTAINER=cce-collector-crac-checkpoint
+
+cd "$(dirname "$0")/.."
+docker build --target crac -t "$BASE_IMAGE" .
+
+docker rm -f "$CONTAINER" > /dev/null 2>&1 || true
+docker run --name "$CONTAINER" --network host \
+  --cap-add CHECKPOINT_RESTORE --cap-add SYS_PTRACE \
+  "$@" "$BASE_IMAGE" checkpoint
+
+docker commit --change 'CMD ["restore"]' "$CONTAINER" "$IMAGE"
+docker rm "$CONTAINER" > /dev/null
+echo "Checkpointed image: $IMAGE (run with --cap-add CHECKPOINT_RESTORE --cap-add SYS_PTRACE)"
@@ -0,0 +1,40 @@
+#!/bin/sh
+# Entrypoint of the crac image (see Dockerfile).
+#   checkpoint — start the service, wait until readiness is UP (after the startup warm-up), then
+#                checkpoint the JVM to $CRAC_DIR; the JVM exits once the image is written
+#   restore    — restore from $CRAC_DIR, falling back to a normal start if there is no checkpoint
+# Both need --cap-add CHECKPOINT_RESTORE --cap-add SYS_PTRACE. Run via scripts/crac-checkpoint.sh.
+set -e
+
+CRAC_DIR=${CRAC_DIR:-/app/crac}
+READINESS_URL=${READINESS_URL:-http://localhost:8080/actuator/health/readiness}
+
+case "${1:-restore}" in
+  checkpoint)
+    mkdir -p "$CRAC_DIR"
+    java -XX:CRaCCheckpointTo="$CRAC_DIR" -jar app.jar &
+    pid=$!
+    until curl -sf "$READINESS_URL" > /dev/null; do
+      if ! kill -0 "$pid" 2> /dev/null; then
+        echo "Service exited before becoming ready" >&2
+        exit 1
+      fi
+      sleep 1
+    done
+    echo "Service ready, taking checkpoint"
+    jcmd "$pid" JDK.checkpoint
+    wait "$pid" || true
+    [ -n "$(ls -A "$CRAC_DIR")" ] || { echo "No checkpoint written to $CRAC_DIR" >&2; exit 1; }
+    ;;
+  restore)
+    if [ -n "$(ls -A "$CRAC_DIR" 2> /dev/null)" ]; then
+      exec java -XX:CRaCRestoreFrom="$CRAC_DIR"
+    fi
+    echo "No checkpoint in $CRAC_DIR, starting normally" >&2
+    exec java -XX:CRaCCheckpointTo="$CRAC_DIR" -jar app.jar
+    ;;
+  *)
+    echo "Usage: $0 [checkpoint|restore]" >&2
+    exit 2
+    ;;
+esac
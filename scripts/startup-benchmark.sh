@@ -0,0 +1,80 @@
+#!/bin/sh
+# Time to first accepted event for each startup mode: from `docker run` until POST /v1/events
+# answers "accepted". Needs PostgreSQL and Kafka up (docker-compose up -d) and uses the host
+# network, so port 8080 must be free.
+#
+#   scripts/startup-benchmark.sh [runs] [modes...]   # default: 3 runs of runtime cds crac
+#
+# runtime and cds images are built here; the crac image comes from scripts/crac-checkpoint.sh
+# and is skipped if it does not exist.
+set -e
+
+RUNS=${1:-3}
+[ $# -gt 0 ] && shift
+MODES=${*:-runtime cds crac}
+URL=${URL:-http://localhost:8080/v1/events}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-300}
+CONTAINER=cce-collector-benchmark
+
+cd "$(dirname "$0")/.."
+
+now_ms() {
+  date +%s%3N
+}
+
+event() {
+  cat <<EOF
+{"specversion":"1.0","id":"bench-$1","source":"startup-benchmark","type":"org.openphc.cce.encounter",
+ "subject":"260225-0002-5501","time":"2026-02-25T08:00:00Z","datacontenttype":"application/fhir+json",
+ "data":{"resourceType":"Encounter","id":"enc-bench","status":"in-progress",
+         "class":{"system":"http://terminology.hl7.org/CodeSystem/v3-ActCode","code":"AMB"},
+         "subject":{"reference":"Patient/260225-0002-5501"}}}
+EOF
+}
+
+# Prints milliseconds from container start to the first accepted event
+measure() {
+  mode=$1
+  run=$2
+  options=""
+  [ "$mode" = crac ] && options="--cap-add CHECKPOINT_RESTORE --cap-add SYS_PTRACE"
+  docker rm -f "$CONTAINER" > /dev/null 2>&1 || true
+  start=$(now_ms)
+  # shellcheck disable=SC2086
+  docker run -d --name "$CONTAINER" --network host $options "cce-collector-service:$mode" > /dev/null
+  deadline=$((start + TIMEOUT_SECONDS * 1000))
+  id="$mode-$start-$run"
+  while :; do
+    if curl -s -X POST "$URL" -H 'Content-Type: application/json' -d "$(event "$id")" 2> /dev/null \
+        | grep -q '"status":"accepted"'; then
+      echo $(($(now_ms) - start))
+      break
+    fi
+    if [ "$(now_ms)" -gt "$deadline" ]; then
+      echo "timeout"
+      break
+    fi
+    sleep 0.05
+  done
+  docker rm -f "$CONTAINER" > /dev/null
+}
+
+for mode in $MODES; do
+  case "$mode" in
+    runtime|cds) docker build -q --target "$mode" -t "cce-collector-service:$mode" . > /dev/null ;;
+    crac)
+      if ! docker image inspect cce-collector-service:crac > /dev/null 2>&1; then
+        echo "crac: image not found, run scripts/crac-checkpoint.sh first" >&2
+        continue
+      fi
+      ;;
+    *) echo "Unknown mode: $mode" >&2; exit 2 ;;
+  esac
+  results=""
+  i=1
+  while [ "$i" -le "$RUNS" ]; do
+    results="$results $(measure "$mode" "$i")"
+    i=$((i + 1))
+  done
+  printf '%-8s first accepted event (ms):%s\n' "$mode" "$results"
+done
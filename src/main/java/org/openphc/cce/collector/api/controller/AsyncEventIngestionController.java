@@ -0,0 +1,54 @@
+package org.openphc.cce.collector.api.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openphc.cce.collector.api.dto.*;
+import org.openphc.cce.collector.service.EventIngestionService;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * POST /v1/events — asynchronous variant of {@link EventIngestionController}.
+ * Enabled with cce.collector.async.enabled=true. The Tomcat worker is released as soon as the
+ * request is handed to the ingestion pipeline; the response is written when the pipeline's
+ * future completes (bounded by spring.mvc.async.request-timeout).
+ */
+@RestController
+@RequestMapping("/v1/events")
+@ConditionalOnProperty(name = "cce.collector.async.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class AsyncEventIngestionController {
+
+    private final EventIngestionService ingestionService;
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<ApiResponse<EventIngestionResponse>>> ingestEvent(
+            @Valid @RequestBody EventIngestionRequest request,
+            @RequestHeader(value = "X-Correlation-Id", required = false) String correlationId) {
+
+        String effectiveCorrelationId = correlationId != null ? correlationId : request.getCorrelationid();
+        MDC.put("correlationId", effectiveCorrelationId);
+        MDC.put("source", request.getSource());
+        MDC.put("eventId", request.getId());
+        MDC.put("subject", request.getSubject());
+
+        try {
+            log.info("Received event: id={}, source={}, type={}, subject={}",
+                    request.getId(), request.getSource(), request.getType(), request.getSubject());
+
+            return ingestionService.ingestAsync(request).thenApply(response -> {
+                HttpStatus status = response.isDuplicate() ? HttpStatus.OK : HttpStatus.ACCEPTED;
+                return ResponseEntity.status(status).body(ApiResponse.success(response));
+            });
+        } finally {
+            MDC.clear();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.openphc.cce.collector.api.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openphc.cce.collector.api.dto.ApiResponse;
+import org.openphc.cce.collector.api.dto.BatchIngestionResponse;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.api.dto.EventIngestionResponse;
+import org.openphc.cce.collector.service.EventIngestionService;
+import org.openphc.cce.collector.service.NdjsonIngestionService;
+import org.slf4j.MDC;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * POST /v1/events:batch — batch event ingestion endpoint.
+ * Accepts a JSON array of CloudEvents v1.0 envelopes (or the CloudEvents batch format)
+ * and returns a per-item result in request order. NDJSON bodies are streamed instead.
+ */
+@RestController
+@RequestMapping("/v1/events:batch")
+@RequiredArgsConstructor
+@Slf4j
+public class BatchIngestionController {
+
+    public static final String CLOUDEVENTS_BATCH_JSON = "application/cloudevents-batch+json";
+
+    private final EventIngestionService ingestionService;
+    private final NdjsonIngestionService ndjsonIngestionService;
+
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, CLOUDEVENTS_BATCH_JSON})
+    public ResponseEntity<ApiResponse<BatchIngestionResponse>> ingestBatch(
+            @RequestBody List<EventIngestionRequest> requests,
+            @RequestHeader(value = "X-Correlation-Id", required = false) String correlationId) {
+
+        MDC.put("correlationId", correlationId);
+        MDC.put("batchSize", String.valueOf(requests.size()));
+
+        try {
+            log.info("Received event batch: size={}", requests.size());
+
+            List<EventIngestionResponse> results = ingestionService.ingestBatch(requests);
+            return ResponseEntity.ok(ApiResponse.success(BatchIngestionResponse.of(results)));
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Streaming variant for large backfills — one CloudEvent per line in, one result per line out.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void ingestStream(
+            InputStream body,
+            HttpServletResponse response,
+            @RequestHeader(value = "X-Correlation-Id", required = false) String correlationId) throws IOException {
+
+        MDC.put("correlationId", correlationId);
+
+        try {
+            log.info("Received NDJSON event stream");
+
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            ndjsonIngestionService.ingest(body, response.getOutputStream());
+        } finally {
+            MDC.clear();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.openphc.cce.collector.api.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openphc.cce.collector.api.dto.*;
+import org.openphc.cce.collector.service.EventIngestionService;
+import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * POST /v1/events in CloudEvents HTTP binary content mode — context attributes arrive as
+ * ce-* headers and the body is the bare FHIR resource. Selected over the structured-mode
+ * handler whenever a ce-specversion header is present.
+ */
+@RestController
+@RequestMapping("/v1/events")
+@RequiredArgsConstructor
+@Slf4j
+public class BinaryEventIngestionController {
+
+    private static final String FHIR_JSON = "application/fhir+json";
+    private static final String CE_PREFIX = "ce-";
+
+    private final EventIngestionService ingestionService;
+
+    @PostMapping(headers = "ce-specversion", consumes = {FHIR_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ApiResponse<EventIngestionResponse>> ingestBinaryEvent(
+            @RequestHeader HttpHeaders headers,
+            InputStream body,
+            @RequestHeader(value = "X-Correlation-Id", required = false) String correlationId) {
+
+        EventIngestionRequest envelope = fromHeaders(headers);
+        String effectiveCorrelationId = correlationId != null ? correlationId : envelope.getCorrelationid();
+        MDC.put("correlationId", effectiveCorrelationId);
+        MDC.put("source", envelope.getSource());
+        MDC.put("eventId", envelope.getId());
+        MDC.put("subject", envelope.getSubject());
+
+        try {
+            log.info("Received binary-mode event: id={}, source={}, type={}, subject={}",
+                    envelope.getId(), envelope.getSource(), envelope.getType(), envelope.getSubject());
+
+            EventIngestionResponse response = ingestionService.ingestBinary(envelope, body);
+            HttpStatus status = response.isDuplicate() ? HttpStatus.OK : HttpStatus.ACCEPTED;
+
+            return ResponseEntity.status(status)
+                    .body(ApiResponse.success(response));
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Map ce-* headers onto the envelope DTO; data stays null until the body is read.
+     * Content-Type becomes datacontenttype, and unrecognized ce-* headers become extensions.
+     */
+    static EventIngestionRequest fromHeaders(HttpHeaders headers) {
+        EventIngestionRequest envelope = new EventIngestionRequest();
+        MediaType contentType = headers.getContentType();
+        if (contentType != null) {
+            envelope.setDatacontenttype(contentType.getType() + "/" + contentType.getSubtype());
+        }
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ROOT);
+            if (!name.startsWith(CE_PREFIX) || header.getValue().isEmpty()) {
+                continue;
+            }
+            String attribute = name.substring(CE_PREFIX.length());
+            String value = decode(header.getValue().get(0));
+            switch (attribute) {
+                case "specversion" -> envelope.setSpecversion(value);
+                case "id" -> envelope.setId(value);
+                case "source" -> envelope.setSource(value);
+                case "type" -> envelope.setType(value);
+                case "subject" -> envelope.setSubject(value);
+                case "time" -> envelope.setTime(value);
+                case "facilityid" -> envelope.setFacilityid(value);
+                case "correlationid" -> envelope.setCorrelationid(value);
+                case "sourceeventid" -> envelope.setSourceeventid(value);
+                case "protocolinstanceid" -> envelope.setProtocolinstanceid(value);
+                case "protocoldefinitionid" -> envelope.setProtocoldefinitionid(value);
+                case "actionid" -> envelope.setActionid(value);
+                default -> envelope.setExtension(attribute, value);
+            }
+        }
+        return envelope;
+    }
+
+    /**
+     * Header values are percent-encoded per the CloudEvents HTTP binding; '+' is literal.
+     */
+    private static String decode(String value) {
+        if (value.indexOf('%') < 0) {
+            return value;
+        }
+        return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+}
@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.openphc.cce.collector.api.dto.*;
 import org.openphc.cce.collector.service.EventIngestionService;
 import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,9 +14,11 @@ import org.springframework.web.bind.annotation.*;
 /**
  * POST /v1/events — main event ingestion endpoint.
  * Receives CloudEvents v1.0 envelopes from external systems.
+ * Replaced by {@link AsyncEventIngestionController} when cce.collector.async.enabled=true.
  */
 @RestController
 @RequestMapping("/v1/events")
+@ConditionalOnProperty(name = "cce.collector.async.enabled", havingValue = "false", matchIfMissing = true)
 @RequiredArgsConstructor
 @Slf4j
 public class EventIngestionController {
@@ -0,0 +1,67 @@
+package org.openphc.cce.collector.api.controller;
+
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keeps the bytes of a structured-mode event body as they are read, and attaches them to the
+ * parsed request as its raw JSON — so raw_payload is the sender's own document, not a map
+ * rebuilt from the DTO and re-serialized.
+ */
+@ControllerAdvice
+public class RawPayloadCaptureAdvice extends RequestBodyAdviceAdapter {
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return targetType == EventIngestionRequest.class;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter,
+                                           Type targetType, Class<? extends HttpMessageConverter<?>> converterType)
+            throws IOException {
+        return new CapturedBody(inputMessage.getHeaders(), inputMessage.getBody().readAllBytes());
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        if (inputMessage instanceof CapturedBody captured && body instanceof EventIngestionRequest request) {
+            request.setRawJson(new String(captured.bytes, captured.charset()));
+        }
+        return body;
+    }
+
+    private record CapturedBody(HttpHeaders headers, byte[] bytes) implements HttpInputMessage {
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        Charset charset() {
+            MediaType contentType = headers.getContentType();
+            return contentType != null && contentType.getCharset() != null
+                    ? contentType.getCharset() : StandardCharsets.UTF_8;
+        }
+    }
+}
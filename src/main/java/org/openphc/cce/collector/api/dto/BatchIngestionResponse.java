@@ -0,0 +1,46 @@
+package org.openphc.cce.collector.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response for a batch ingestion request — one result per submitted event, in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchIngestionResponse {
+
+    private int total;
+    private int accepted;
+    private int duplicates;
+    private int rejected;
+    private List<EventIngestionResponse> results;
+
+    public static BatchIngestionResponse of(List<EventIngestionResponse> results) {
+        int accepted = 0;
+        int duplicates = 0;
+        int rejected = 0;
+        for (EventIngestionResponse result : results) {
+            switch (result.getStatus()) {
+                case "accepted" -> accepted++;
+                case "duplicate" -> duplicates++;
+                default -> rejected++;
+            }
+        }
+        return BatchIngestionResponse.builder()
+                .total(results.size())
+                .accepted(accepted)
+                .duplicates(duplicates)
+                .rejected(rejected)
+                .results(results)
+                .build();
+    }
+}
@@ -1,13 +1,13 @@
 package org.openphc.cce.collector.api.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.OffsetDateTime;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -26,7 +26,8 @@ public class DeadLetterDto {
     private String source;
     private String type;
     private String subject;
-    private Map<String, Object> rawPayload;
+    @JsonRawValue
+    private String rawPayload;
     private String rejectionReason;
     private String failureStage;
     private String errorDetails;
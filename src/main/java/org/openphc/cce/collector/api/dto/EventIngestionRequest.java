@@ -1,6 +1,9 @@
 package org.openphc.cce.collector.api.dto;
 
 import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -57,13 +60,27 @@ public class EventIngestionRequest {
     @Builder.Default
     private Map<String, Object> extensions = new HashMap<>();
 
+    /**
+     * The event exactly as the sender sent it (JSON text), when captured at the ingestion
+     * boundary — stored as raw_payload instead of re-serializing {@link #toRawPayload()}.
+     */
+    @JsonIgnore
+    private String rawJson;
+
+    /**
+     * Hash of the canonicalized data, computed once by the payload dedup strategy.
+     */
+    @JsonIgnore
+    private Long payloadFingerprint;
+
     @JsonAnySetter
     public void setExtension(String key, Object value) {
         extensions.put(key, value);
     }
 
     /**
-     * Build a full map representation of the raw request (for raw_payload storage).
+     * Build a full map representation of the raw request (for raw_payload storage when
+     * the original JSON was not captured).
      */
     public Map<String, Object> toRawPayload() {
         Map<String, Object> payload = new HashMap<>();
@@ -84,4 +101,19 @@ public class EventIngestionRequest {
         payload.putAll(extensions);
         return payload;
     }
+
+    /**
+     * raw_payload for this event — the JSON captured at the ingestion boundary when available,
+     * otherwise {@link #toRawPayload()} serialized once and kept as rawJson for any later write.
+     */
+    public String rawPayloadJson(ObjectMapper objectMapper) {
+        if (rawJson == null) {
+            try {
+                rawJson = objectMapper.writeValueAsString(toRawPayload());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Event could not be serialized for raw_payload", e);
+            }
+        }
+        return rawJson;
+    }
 }
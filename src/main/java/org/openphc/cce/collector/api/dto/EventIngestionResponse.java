@@ -19,12 +19,13 @@ import java.time.OffsetDateTime;
 public class EventIngestionResponse {
 
     private String eventId;
-    private String status;          // "accepted" or "duplicate"
+    private String status;          // "accepted", "duplicate" or "rejected" (batch only)
     private String correlationId;
     private String publishedTopic;
     private OffsetDateTime receivedAt;
     private String reason;          // only set for rejected events in batch
     private String details;         // only set for rejected events in batch
+    private Long line;              // only set for NDJSON stream results (1-based input line)
 
     public boolean isDuplicate() {
         return "duplicate".equals(status);
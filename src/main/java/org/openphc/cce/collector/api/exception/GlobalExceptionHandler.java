@@ -2,13 +2,17 @@ package org.openphc.cce.collector.api.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.openphc.cce.collector.api.dto.ApiResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 /**
@@ -18,6 +22,12 @@ import java.util.stream.Collectors;
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private final long retryAfterSeconds;
+
+    public GlobalExceptionHandler(@Value("${cce.collector.admission.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
     @ExceptionHandler(CloudEventValidationException.class)
     public ResponseEntity<ApiResponse<Void>> handleCloudEventValidation(CloudEventValidationException ex) {
         log.warn("CloudEvents validation failed: {}", ex.getMessage());
@@ -44,6 +54,31 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error("VALIDATION_ERROR", errors));
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiResponse<Void>> handleUnreadableBody(HttpMessageNotReadableException ex) {
+        if (ex.getCause() instanceof PayloadTooLargeException tooLarge) {
+            return handlePayloadTooLarge(tooLarge);
+        }
+        log.warn("Unreadable request body: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error("VALIDATION_ERROR", "Request body could not be read"));
+    }
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<ApiResponse<Void>> handlePayloadTooLarge(PayloadTooLargeException ex) {
+        log.warn("Payload too large: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(ApiResponse.error("PAYLOAD_TOO_LARGE", ex.getMessage()));
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse<Void>> handleTooManyRequests(TooManyRequestsException ex) {
+        log.warn("Request shed: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error("TOO_MANY_REQUESTS", ex.getMessage()));
+    }
+
     @ExceptionHandler(KafkaPublishException.class)
     public ResponseEntity<ApiResponse<Void>> handleKafkaPublishFailure(KafkaPublishException ex) {
         log.error("Kafka publish failed for event {}: {}", ex.getEvent().getId(), ex.getMessage());
@@ -52,6 +87,17 @@ public class GlobalExceptionHandler {
                         "Event accepted but Kafka publish failed. Event will be retried."));
     }
 
+    /**
+     * A full executor, stage or lane queue is overload like any other shed request — 429 with
+     * Retry-After, so clients back off instead of treating it as an outage.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiResponse<Void>> handleOverload(RejectedExecutionException ex) {
+        log.warn("Ingestion executor saturated: {}", ex.getMessage());
+        return handleTooManyRequests(
+                new TooManyRequestsException("Ingestion capacity exhausted. Retry later.", retryAfterSeconds));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Void>> handleGeneric(Exception ex) {
         log.error("Unexpected error: {}", ex.getMessage(), ex);
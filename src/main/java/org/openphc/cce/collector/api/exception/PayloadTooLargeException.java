@@ -0,0 +1,11 @@
+package org.openphc.cce.collector.api.exception;
+
+/**
+ * Exception thrown when a request exceeds a configured size limit.
+ */
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package org.openphc.cce.collector.api.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a request is shed by admission control; the client should retry later.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,248 @@
+package org.openphc.cce.collector.api.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.openphc.cce.collector.api.dto.ApiResponse;
+import org.openphc.cce.collector.api.exception.PayloadTooLargeException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decodes gzip/zstd request bodies as they are read and enforces the payload size limit on
+ * the decoded byte count, so oversized or highly compressed payloads fail before they are
+ * buffered. NDJSON streams are not limited as a whole — each line is limited by the reader.
+ */
+@Slf4j
+public class RequestBodyDecodingFilter extends OncePerRequestFilter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final long maxPayloadSize;
+    private final long maxBatchPayloadSize;
+    private final ObjectMapper objectMapper;
+
+    public RequestBodyDecodingFilter(long maxPayloadSize, long maxBatchPayloadSize, ObjectMapper objectMapper) {
+        this.maxPayloadSize = maxPayloadSize;
+        this.maxBatchPayloadSize = maxBatchPayloadSize;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !"POST".equals(method) && !"PUT".equals(method);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String encoding = contentEncoding(request);
+        if (encoding != null && !"gzip".equals(encoding) && !"zstd".equals(encoding)) {
+            reject(response, HttpStatus.UNSUPPORTED_MEDIA_TYPE, "UNSUPPORTED_ENCODING",
+                    "Unsupported Content-Encoding: " + encoding + " (supported: gzip, zstd)");
+            return;
+        }
+
+        long limit = limitFor(request);
+        long contentLength = request.getContentLengthLong();
+        if (limit > 0 && contentLength > limit) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "PAYLOAD_TOO_LARGE",
+                    "Request body of " + contentLength + " bytes exceeds limit of " + limit + " bytes");
+            return;
+        }
+
+        if (encoding == null && limit <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        filterChain.doFilter(new DecodedRequest(request, encoding, limit), response);
+    }
+
+    private long limitFor(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.startsWith(MediaType.APPLICATION_NDJSON_VALUE)) {
+            return 0;
+        }
+        return request.getServletPath().endsWith(":batch") ? maxBatchPayloadSize : maxPayloadSize;
+    }
+
+    private static String contentEncoding(HttpServletRequest request) {
+        String value = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String encoding = value.trim().toLowerCase(Locale.ROOT);
+        if ("identity".equals(encoding)) {
+            return null;
+        }
+        return "x-gzip".equals(encoding) ? "gzip" : encoding;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String code, String message)
+            throws IOException {
+        log.warn("Request body rejected: {}", message);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(code, message));
+    }
+
+    /**
+     * Request view whose body is the decoded, size-limited stream. Content-Encoding and
+     * Content-Length are hidden since they describe the wire bytes, not what is read.
+     */
+    private static final class DecodedRequest extends HttpServletRequestWrapper {
+
+        private final String encoding;
+        private final long limit;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        DecodedRequest(HttpServletRequest request, String encoding, long limit) {
+            super(request);
+            this.encoding = encoding;
+            this.limit = limit;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                InputStream raw = super.getInputStream();
+                InputStream decoded = switch (encoding == null ? "" : encoding) {
+                    case "gzip" -> new GZIPInputStream(raw, BUFFER_SIZE);
+                    case "zstd" -> new ZstdInputStream(raw);
+                    default -> raw;
+                };
+                inputStream = new LimitedServletInputStream(decoded, limit);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String charset = getCharacterEncoding();
+                reader = new BufferedReader(new InputStreamReader(getInputStream(),
+                        charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8));
+            }
+            return reader;
+        }
+
+        @Override
+        public int getContentLength() {
+            return encoding == null ? super.getContentLength() : -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return encoding == null ? super.getContentLengthLong() : -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !isHidden(name))
+                    .toList());
+        }
+
+        private boolean isHidden(String name) {
+            return encoding != null && (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name));
+        }
+    }
+
+    /**
+     * Counts decoded bytes and fails with PayloadTooLargeException once the limit is passed.
+     */
+    private static final class LimitedServletInputStream extends ServletInputStream {
+
+        private final InputStream delegate;
+        private final long limit;
+        private long count;
+        private boolean finished;
+
+        LimitedServletInputStream(InputStream delegate, long limit) {
+            this.delegate = delegate;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b < 0) {
+                finished = true;
+            } else {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = delegate.read(b, off, len);
+            if (n < 0) {
+                finished = true;
+            } else {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            count += n;
+            if (limit > 0 && count > limit) {
+                throw new PayloadTooLargeException("Decoded request body exceeds limit of " + limit + " bytes");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new IllegalStateException("Non-blocking reads are not supported for decoded bodies");
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.openphc.cce.collector.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Adaptive concurrency limit for the ingestion pipeline (gradient-style, with AIMD back-off).
+ * <p>
+ * Each admitted call reports its latency on release. {@link #adjust()} runs periodically and
+ * compares the latest window's average latency against a slow-moving baseline: while latency
+ * stays near the baseline the limit grows by roughly √limit per window, and as latency climbs
+ * the limit shrinks in proportion. When any pressure signal (e.g. connection-pool waiters or
+ * a full Kafka buffer) stays raised for several consecutive windows the limit is cut
+ * multiplicatively instead; a signal raised for a single window is ordinary contention, not
+ * overload. Calls beyond the limit are rejected immediately rather than queued.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter implements AutoCloseable {
+
+    /** Number of adjustment windows the latency baseline averages over. */
+    private static final int BASELINE_WINDOWS = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final Map<String, BooleanSupplier> pressureSignals;
+    private final int pressureWindows;
+    private final Map<String, Integer> raisedWindows = new HashMap<>();
+
+    private volatile int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder rttSumNanos = new LongAdder();
+    private final LongAdder rttCount = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private double baselineRttNanos;
+    private ScheduledExecutorService adjuster;
+
+    /**
+     * @param initialLimit    starting concurrency limit
+     * @param minLimit        floor the limit never drops below
+     * @param maxLimit        ceiling the limit never grows above
+     * @param tolerance       latency ratio to the baseline tolerated before the limit shrinks (e.g. 1.5)
+     * @param smoothing       fraction of each computed change applied per window (0–1]
+     * @param backoffRatio    multiplicative decrease applied while a pressure signal is raised
+     * @param pressureSignals named signals, checked on every adjustment
+     * @param pressureWindows consecutive windows a signal must stay raised before the limit backs off
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      double smoothing, double backoffRatio,
+                                      Map<String, BooleanSupplier> pressureSignals, int pressureWindows) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.backoffRatio = backoffRatio;
+        this.pressureSignals = pressureSignals;
+        this.pressureWindows = Math.max(1, pressureWindows);
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Start adjusting the limit every {@code interval} on a dedicated daemon thread, so a busy
+     * shared scheduler cannot delay a reaction to overload.
+     */
+    public synchronized void start(Duration interval) {
+        if (adjuster != null) {
+            return;
+        }
+        adjuster = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("admission-adjust").daemon().factory());
+        adjuster.scheduleWithFixedDelay(() -> {
+            try {
+                adjust();
+            } catch (RuntimeException e) {
+                log.error("Concurrency limit adjustment failed: {}", e.getMessage(), e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (adjuster != null) {
+            adjuster.shutdownNow();
+            adjuster = null;
+        }
+    }
+
+    /**
+     * Admit a call if fewer than {@code limit} calls are in flight. Every successful acquire
+     * must be paired with one {@link #release} call.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release a permit and record the call's latency as a limit sample.
+     */
+    public void release(long rttNanos) {
+        inFlight.decrementAndGet();
+        rttSumNanos.add(rttNanos);
+        rttCount.increment();
+    }
+
+    /**
+     * Release a permit without a latency sample — for calls whose latency is not
+     * comparable to single-event ingestion (e.g. batches).
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Recompute the limit from the latency samples and pressure signals gathered since the last call.
+     */
+    public synchronized void adjust() {
+        long count = rttCount.sumThenReset();
+        long sum = rttSumNanos.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        int current = limit;
+
+        String pressure = raisedSignal();
+        if (pressure != null) {
+            int reduced = clamp(Math.min(current - 1, current * backoffRatio));
+            if (reduced != current) {
+                log.warn("Ingestion concurrency limit reduced {} -> {} ({} pressure)", current, reduced, pressure);
+            }
+            limit = reduced;
+            return;
+        }
+        if (count == 0) {
+            return;
+        }
+
+        double sampleRtt = (double) sum / count;
+        if (baselineRttNanos == 0) {
+            baselineRttNanos = sampleRtt;
+        } else {
+            baselineRttNanos += (sampleRtt - baselineRttNanos) / BASELINE_WINDOWS;
+            // Recover quickly after a sustained slowdown so the baseline does not stay inflated
+            if (baselineRttNanos > 2 * sampleRtt) {
+                baselineRttNanos = (baselineRttNanos + sampleRtt) / 2;
+            }
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineRttNanos / sampleRtt));
+        // Don't grow a limit the traffic isn't using; still allow it to shrink
+        double headroom = peak * 2 < current ? 0 : Math.sqrt(current);
+        double target = current * gradient + headroom;
+        int next = clamp(current * (1 - smoothing) + target * smoothing);
+        // Smoothing rounds small steps away; always make at least one step in the target's direction
+        if (next == current && Math.abs(target - current) >= 1) {
+            next = clamp(target > current ? current + 1 : current - 1);
+        }
+        limit = next;
+    }
+
+    /**
+     * Poll every signal once per window and return the first that has been raised for
+     * {@code pressureWindows} consecutive windows.
+     */
+    private String raisedSignal() {
+        String sustained = null;
+        for (Map.Entry<String, BooleanSupplier> signal : pressureSignals.entrySet()) {
+            boolean raised;
+            try {
+                raised = signal.getValue().getAsBoolean();
+            } catch (RuntimeException e) {
+                log.debug("Pressure signal {} unavailable: {}", signal.getKey(), e.getMessage());
+                raised = false;
+            }
+            int windows = raised ? raisedWindows.merge(signal.getKey(), 1, Integer::sum) : 0;
+            if (!raised) {
+                raisedWindows.remove(signal.getKey());
+            }
+            if (sustained == null && windows >= pressureWindows) {
+                sustained = signal.getKey();
+            }
+        }
+        return sustained;
+    }
+
+    private int clamp(double value) {
+        return (int) Math.max(minLimit, Math.min(maxLimit, Math.round(value)));
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
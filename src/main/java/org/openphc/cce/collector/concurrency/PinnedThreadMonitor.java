@@ -0,0 +1,115 @@
+package org.openphc.cce.collector.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects virtual threads that block while pinned to their carrier thread (typically a
+ * {@code synchronized} section or native frame), using the in-process JFR event
+ * {@code jdk.VirtualThreadPinned}. Each pinning is recorded as
+ * cce.collector.virtualthreads.pinned{component=jdbc|fhir|kafka|other}; the stack of each
+ * distinct pinning site is logged once.
+ */
+@Slf4j
+public class PinnedThreadMonitor implements SmartLifecycle {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private static final Map<String, String> COMPONENT_PACKAGES = Map.of(
+            "org.postgresql.", "jdbc",
+            "com.zaxxer.hikari.", "jdbc",
+            "org.hibernate.", "jdbc",
+            "ca.uhn.fhir.", "fhir",
+            "org.hl7.fhir.", "fhir",
+            "org.apache.kafka.", "kafka",
+            "org.springframework.kafka.", "kafka");
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private volatile RecordingStream stream;
+
+    public PinnedThreadMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+        stream = recording;
+        log.info("Virtual thread pinning monitor started: threshold={}", threshold);
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = frames(event.getStackTrace());
+        String component = classify(frames);
+        Timer.builder("cce.collector.virtualthreads.pinned")
+                .description("Time virtual threads spent blocked while pinned to a carrier thread")
+                .tag("component", component)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        String site = frames.isEmpty() ? "unknown" : describe(frames.get(0));
+        if (reportedSites.add(site)) {
+            StringBuilder stack = new StringBuilder();
+            frames.stream().limit(LOGGED_FRAMES).forEach(f -> stack.append("\n\tat ").append(describe(f)));
+            log.warn("Virtual thread pinned for {}ms (component={}, first occurrence at this site):{}",
+                    event.getDuration().toMillis(), component, stack);
+        }
+    }
+
+    private static List<RecordedFrame> frames(RecordedStackTrace stackTrace) {
+        return stackTrace != null ? stackTrace.getFrames() : List.of();
+    }
+
+    /**
+     * Attribute the pinning to the first library frame we recognize, walking from the top of the stack.
+     */
+    static String classify(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            for (Map.Entry<String, String> entry : COMPONENT_PACKAGES.entrySet()) {
+                if (type.startsWith(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return "other";
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
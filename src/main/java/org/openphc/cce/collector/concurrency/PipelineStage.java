@@ -0,0 +1,112 @@
+package org.openphc.cce.collector.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One stage of a staged (SEDA) pipeline — a fixed worker pool behind a bounded queue, with queue
+ * depth, queue wait and service time exported per stage so a saturated stage is visible and can
+ * be sized on its own. A full queue rejects the task rather than blocking the caller.
+ */
+public class PipelineStage implements AutoCloseable {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer serviceTimer;
+
+    public PipelineStage(String name, int workers, int queueCapacity, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("stage-" + name + "-", 0).factory());
+
+        Tags tags = Tags.of("stage", name);
+        this.waitTimer = Timer.builder("cce.collector.pipeline.wait")
+                .description("Time an event waits in the stage queue")
+                .tags(tags)
+                .register(meterRegistry);
+        this.serviceTimer = Timer.builder("cce.collector.pipeline.service")
+                .description("Time a stage worker spends on an event")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("cce.collector.pipeline.queue.depth", executor, e -> e.getQueue().size())
+                .description("Events queued for the stage")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("cce.collector.pipeline.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Stage workers currently busy")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a task on this stage. The caller's MDC is carried over to the worker.
+     *
+     * @return a future completed with the task's result, or exceptionally with what it threw
+     * @throws RejectedExecutionException if the stage queue is full or the stage is closed
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            long start = System.nanoTime();
+            waitTimer.record(start - enqueuedAt, TimeUnit.NANOSECONDS);
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            T result = null;
+            Throwable failure = null;
+            try {
+                result = task.get();
+            } catch (Throwable e) {
+                failure = e;
+            }
+            serviceTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            // Completed with the MDC still set, so the next stage chained on this future inherits it
+            try {
+                if (failure != null) {
+                    future.completeExceptionally(failure);
+                } else {
+                    future.complete(result);
+                }
+            } finally {
+                MDC.clear();
+            }
+        });
+        return future;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stop accepting tasks and wait briefly for queued ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
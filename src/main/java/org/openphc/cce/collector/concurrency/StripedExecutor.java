@@ -0,0 +1,101 @@
+package org.openphc.cce.collector.concurrency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Executor striped into single-threaded lanes by key hash. Tasks with the same key always land
+ * on the same lane and run one at a time in submission order; tasks with different keys run in
+ * parallel across lanes with no shared lock. Each lane has a bounded backlog, exported per lane.
+ */
+public class StripedExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor[] lanes;
+    private final Timer waitTimer;
+
+    public StripedExecutor(String name, int laneCount, int laneQueueCapacity, MeterRegistry meterRegistry) {
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(laneQueueCapacity),
+                    Thread.ofPlatform().name(name + "-lane-" + i).factory());
+            Gauge.builder("cce.collector.lanes.backlog", lanes[i], lane -> lane.getQueue().size())
+                    .description("Events queued behind the one in progress on the lane")
+                    .tag("lane", Integer.toString(i))
+                    .register(meterRegistry);
+        }
+        this.waitTimer = Timer.builder("cce.collector.lanes.wait")
+                .description("Time an event waits for its lane")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a task on the lane for {@code key}, after every task previously submitted for that lane.
+     * The caller's MDC is carried over to the lane thread.
+     *
+     * @throws RejectedExecutionException if the lane's backlog is full or the executor is closed
+     */
+    public <T> CompletableFuture<T> submit(Object key, Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        lanes[laneOf(key)].execute(() -> {
+            waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                MDC.clear();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Lane index for a key — the hash is spread so keys differing only in high bits still separate.
+     */
+    public int laneOf(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), lanes.length);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getBacklog(int lane) {
+        return lanes[lane].getQueue().size();
+    }
+
+    /**
+     * Stop accepting tasks and wait briefly for queued ones to finish.
+     */
+    @Override
+    public void close() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            try {
+                lane.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.openphc.cce.collector.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.openphc.cce.collector.api.dto.CloudEventMessage;
+import org.openphc.cce.collector.concurrency.AdaptiveConcurrencyLimiter;
+import org.openphc.cce.collector.concurrency.ConnectionLimitingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Admission control for the ingestion pipeline — an adaptive concurrency limit driven by
+ * ingestion latency, with database connection waiters and Kafka producer buffer exhaustion
+ * as overload signals. Requests over the limit are rejected with 429 and Retry-After. Active when
+ * cce.collector.admission.enabled=true.
+ * <p>
+ * The database signal is relative to the pool size, and a signal must persist for
+ * {@code pressure-windows} adjustment windows: a few threads briefly waiting on Hikari is normal
+ * pool contention during a burst, not degradation.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cce.collector.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter ingestionConcurrencyLimiter(
+            DataSource dataSource,
+            KafkaTemplate<String, CloudEventMessage> kafkaTemplate,
+            @Value("${cce.collector.admission.initial-limit:32}") int initialLimit,
+            @Value("${cce.collector.admission.min-limit:4}") int minLimit,
+            @Value("${cce.collector.admission.max-limit:256}") int maxLimit,
+            @Value("${cce.collector.admission.tolerance:1.5}") double tolerance,
+            @Value("${cce.collector.admission.smoothing:0.2}") double smoothing,
+            @Value("${cce.collector.admission.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${cce.collector.admission.adjust-interval-ms:100}") long adjustIntervalMs,
+            @Value("${cce.collector.admission.db-pending-ratio:0.5}") double dbPendingRatio,
+            @Value("${cce.collector.admission.kafka-min-free-buffer-ratio:0.2}") double kafkaMinFreeBufferRatio,
+            @Value("${cce.collector.admission.pressure-windows:3}") int pressureWindows) {
+        double dbPendingThreshold = dbPendingRatio * maximumPoolSize(dataSource);
+        Map<String, BooleanSupplier> signals = new LinkedHashMap<>();
+        signals.put("db", () -> pendingConnections(dataSource) > dbPendingThreshold);
+        signals.put("kafka", () -> freeBufferRatio(kafkaTemplate) < kafkaMinFreeBufferRatio);
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                initialLimit, minLimit, maxLimit, tolerance, smoothing, backoffRatio, signals, pressureWindows);
+        limiter.start(Duration.ofMillis(adjustIntervalMs));
+        return limiter;
+    }
+
+    @Bean
+    public MeterBinder admissionControlMetrics(AdaptiveConcurrencyLimiter limiter) {
+        return registry -> {
+            Gauge.builder("cce.collector.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive ingestion concurrency limit")
+                    .register(registry);
+            Gauge.builder("cce.collector.admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Ingestion calls currently admitted")
+                    .register(registry);
+            FunctionCounter.builder("cce.collector.admission.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                    .description("Ingestion calls rejected with 429 by admission control")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Hikari's maximum-pool-size (its default of 10 when the pool is not Hikari).
+     */
+    private static int maximumPoolSize(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        } catch (SQLException e) {
+            return 10;
+        }
+    }
+
+    /**
+     * Threads waiting for a connection — in Hikari, plus in the virtual-thread connection limiter if present.
+     */
+    private static int pendingConnections(DataSource dataSource) {
+        int pending = 0;
+        try {
+            HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            if (pool != null) {
+                pending += pool.getThreadsAwaitingConnection();
+            }
+            if (dataSource.isWrapperFor(ConnectionLimitingDataSource.class)) {
+                pending += dataSource.unwrap(ConnectionLimitingDataSource.class).getWaitingThreads();
+            }
+        } catch (SQLException e) {
+            return 0;
+        }
+        return pending;
+    }
+
+    /**
+     * Fraction of the Kafka producer's buffer.memory still free (1.0 when metrics are unavailable).
+     */
+    private static double freeBufferRatio(KafkaTemplate<String, CloudEventMessage> kafkaTemplate) {
+        double available = -1;
+        double total = -1;
+        for (Map.Entry<MetricName, ? extends Metric> metric : kafkaTemplate.metrics().entrySet()) {
+            if (!"producer-metrics".equals(metric.getKey().group())) {
+                continue;
+            }
+            switch (metric.getKey().name()) {
+                case "buffer-available-bytes" -> available = toDouble(metric.getValue().metricValue());
+                case "buffer-total-bytes" -> total = toDouble(metric.getValue().metricValue());
+                default -> { }
+            }
+        }
+        return available >= 0 && total > 0 ? available / total : 1.0;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : -1;
+    }
+}
@@ -0,0 +1,91 @@
+package org.openphc.cce.collector.config;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+
+/**
+ * Executors for the asynchronous ingestion pipeline.
+ * The ingestion executor runs the database stages; its queue is bounded so overload is
+ * rejected (429) instead of accumulating unbounded work. Pool and queue metrics are
+ * exported by Spring Boot as executor.* with name=ingestionExecutor.
+ * In virtual-thread mode each task gets its own virtual thread instead, and database
+ * concurrency is bounded by the connection limiter (see {@link VirtualThreadConfig}).
+ * <p>
+ * Only registered with cce.collector.async.enabled=true. Any Executor bean makes Spring Boot's
+ * applicationTaskExecutor back off, so that one is declared here too: Spring MVC async handling
+ * and {@code @Async} keep Boot's default pool instead of landing on the bounded ingestion queue.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cce.collector.async.enabled", havingValue = "true")
+public class AsyncConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor ingestionExecutor(
+            @Value("${cce.collector.async.executor.core-pool-size:16}") int corePoolSize,
+            @Value("${cce.collector.async.executor.max-pool-size:16}") int maxPoolSize,
+            @Value("${cce.collector.async.executor.queue-capacity:2000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ingest-");
+        executor.setTaskDecorator(AsyncConfig::propagateMdc);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    @Bean(name = "ingestionExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualIngestionExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ingest-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(AsyncConfig::propagateMdc);
+        return executor;
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualApplicationTaskExecutor(SimpleAsyncTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Carry the submitting thread's MDC (correlationId, eventId, ...) into the task.
+     */
+    static Runnable propagateMdc(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            if (context != null) {
+                MDC.setContextMap(context);
+            }
+            try {
+                task.run();
+            } finally {
+                MDC.clear();
+            }
+        };
+    }
+}
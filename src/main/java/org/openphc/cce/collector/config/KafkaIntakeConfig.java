@@ -0,0 +1,71 @@
+package org.openphc.cce.collector.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka raw-intake consumer — an alternative to HTTP for mediators that can write to Kafka.
+ * Enabled with cce.collector.kafka-intake.enabled=true. Records are consumed in poll-sized
+ * batches with manual offset commits after each batch has been processed.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cce.collector.kafka-intake.enabled", havingValue = "true")
+public class KafkaIntakeConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Bean
+    public ConsumerFactory<String, byte[]> rawIntakeConsumerFactory(
+            @Value("${cce.collector.kafka-intake.group-id:cce-collector-intake}") String groupId,
+            @Value("${cce.collector.kafka-intake.max-poll-records:500}") int maxPollRecords) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> rawIntakeListenerContainerFactory(
+            ConsumerFactory<String, byte[]> rawIntakeConsumerFactory,
+            @Value("${cce.collector.kafka-intake.concurrency:3}") int concurrency,
+            @Value("${cce.collector.kafka-intake.retry-interval-ms:5000}") long retryIntervalMs) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(rawIntakeConsumerFactory);
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        // Offsets are committed once the listener returns, i.e. after the batch's outbox write
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        // A failed batch (e.g. database down) is redelivered until it succeeds — never skipped
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                new FixedBackOff(retryIntervalMs, FixedBackOff.UNLIMITED_ATTEMPTS)));
+        return factory;
+    }
+
+    @Bean
+    public NewTopic rawIntakeTopic(
+            @Value("${cce.kafka.topics.raw-intake}") String topicName) {
+        return new NewTopic(topicName, 12, (short) 1); // 12 partitions, replication=1 for dev
+    }
+}
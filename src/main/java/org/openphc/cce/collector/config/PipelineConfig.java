@@ -0,0 +1,41 @@
+package org.openphc.cce.collector.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openphc.cce.collector.concurrency.PipelineStage;
+import org.openphc.cce.collector.service.IngestionStages;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Staged ingestion pipeline — active when cce.collector.pipeline.enabled=true.
+ * Each step of single-event ingestion runs on its own bounded worker pool, sized under
+ * cce.collector.pipeline.stages.&lt;stage&gt;.workers / .queue-capacity.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cce.collector.pipeline.enabled", havingValue = "true")
+public class PipelineConfig {
+
+    private static final String STAGES_PREFIX = "cce.collector.pipeline.stages.";
+
+    @Bean
+    public IngestionStages ingestionStages(Environment environment, MeterRegistry meterRegistry) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new IngestionStages(
+                stage("validate", 2, environment, meterRegistry),
+                stage("dedup", 8, environment, meterRegistry),
+                stage("fhir", cores, environment, meterRegistry),
+                stage("persist", 8, environment, meterRegistry),
+                stage("publish", 8, environment, meterRegistry));
+    }
+
+    private static PipelineStage stage(String name, int defaultWorkers, Environment environment,
+                                       MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        int workers = binder.bind(STAGES_PREFIX + name + ".workers", Integer.class).orElse(defaultWorkers);
+        int queueCapacity = binder.bind(STAGES_PREFIX + name + ".queue-capacity", Integer.class).orElse(1000);
+        return new PipelineStage(name, workers, queueCapacity, meterRegistry);
+    }
+}
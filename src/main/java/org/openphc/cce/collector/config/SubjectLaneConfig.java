@@ -0,0 +1,26 @@
+package org.openphc.cce.collector.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openphc.cce.collector.concurrency.StripedExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-subject ordered lanes — active when cce.collector.lanes.enabled=true.
+ * Single-event ingestions for one patient (CloudEvents subject) are processed serially, from
+ * validation through the Kafka acknowledgement, so they reach the inbound topic in arrival order.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cce.collector.lanes.enabled", havingValue = "true")
+public class SubjectLaneConfig {
+
+    @Bean
+    public StripedExecutor subjectLanes(
+            @Value("${cce.collector.lanes.count:64}") int laneCount,
+            @Value("${cce.collector.lanes.queue-capacity:100}") int laneQueueCapacity,
+            MeterRegistry meterRegistry) {
+        return new StripedExecutor("subject", laneCount, laneQueueCapacity, meterRegistry);
+    }
+}
@@ -0,0 +1,79 @@
+package org.openphc.cce.collector.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.openphc.cce.collector.concurrency.ConnectionLimitingDataSource;
+import org.openphc.cce.collector.concurrency.PinnedThreadMonitor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Virtual-thread mode support — active when spring.threads.virtual.enabled=true.
+ * Spring Boot already runs Tomcat requests and @Scheduled tasks on virtual threads in that mode;
+ * {@link AsyncConfig} switches the ingestion executor. This configuration adds the safeguards:
+ * a connection limiter sized to the Hikari pool and a carrier-thread pinning monitor.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    private static final String LIMITER_PREFIX = "cce.collector.virtual-threads.db-limiter";
+
+    @Bean
+    @ConditionalOnProperty(name = LIMITER_PREFIX + ".enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        Duration acquireTimeout = Binder.get(environment)
+                .bind(LIMITER_PREFIX + ".acquire-timeout", Duration.class)
+                .orElse(Duration.ofSeconds(10));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new ConnectionLimitingDataSource(hikari, hikari.getMaximumPoolSize(), acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = LIMITER_PREFIX + ".enabled", havingValue = "true", matchIfMissing = true)
+    public MeterBinder connectionLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionLimitingDataSource limiter;
+            try {
+                limiter = dataSource.unwrap(ConnectionLimitingDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("cce.collector.db.limiter.waiting", limiter, ConnectionLimitingDataSource::getWaitingThreads)
+                    .description("Threads waiting for a database connection permit")
+                    .register(registry);
+            Gauge.builder("cce.collector.db.limiter.available", limiter, ConnectionLimitingDataSource::getAvailablePermits)
+                    .description("Database connection permits currently available")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "cce.collector.virtual-threads.pinning-monitor.enabled",
+            havingValue = "true", matchIfMissing = true)
+    public PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry, Environment environment) {
+        Duration threshold = Binder.get(environment)
+                .bind("cce.collector.virtual-threads.pinning-monitor.threshold", Duration.class)
+                .orElse(Duration.ofMillis(20));
+        return new PinnedThreadMonitor(meterRegistry, threshold);
+    }
+}
@@ -1,11 +1,17 @@
 package org.openphc.cce.collector.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openphc.cce.collector.api.filter.RequestBodyDecodingFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
- * Web configuration — CORS and request logging.
+ * Web configuration — CORS, request logging and request body decoding.
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -17,4 +23,16 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*");
     }
+
+    @Bean
+    public FilterRegistrationBean<RequestBodyDecodingFilter> requestBodyDecodingFilter(
+            @Value("${cce.collector.max-payload-size:1048576}") long maxPayloadSize,
+            @Value("${cce.collector.batch.max-payload-size:33554432}") long maxBatchPayloadSize,
+            ObjectMapper objectMapper) {
+        FilterRegistrationBean<RequestBodyDecodingFilter> registration = new FilterRegistrationBean<>(
+                new RequestBodyDecodingFilter(maxPayloadSize, maxBatchPayloadSize, objectMapper));
+        registration.addUrlPatterns("/v1/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
 }
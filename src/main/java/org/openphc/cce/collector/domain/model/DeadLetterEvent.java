@@ -8,7 +8,6 @@ import org.openphc.cce.collector.domain.model.enums.FailureStage;
 import org.openphc.cce.collector.domain.model.enums.RejectionReason;
 
 import java.time.OffsetDateTime;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -41,7 +40,7 @@ public class DeadLetterEvent {
 
     @Column(name = "raw_payload", nullable = false, columnDefinition = "jsonb")
     @JdbcTypeCode(SqlTypes.JSON)
-    private Map<String, Object> rawPayload;
+    private String rawPayload; // JSON text, written to jsonb as-is
 
     @Enumerated(EnumType.STRING)
     @Column(name = "rejection_reason", nullable = false)
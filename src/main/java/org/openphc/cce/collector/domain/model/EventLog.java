@@ -39,6 +39,9 @@ public class EventLog {
     @Column(name = "source_event_id")
     private String sourceEventId;
 
+    @Column(name = "payload_fingerprint")
+    private Long payloadFingerprint;
+
     @Column(nullable = false)
     private String subject;
 
@@ -7,7 +7,6 @@ import org.hibernate.type.SqlTypes;
 import org.openphc.cce.collector.domain.model.enums.InboundStatus;
 
 import java.time.OffsetDateTime;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -60,7 +59,7 @@ public class InboundEvent {
 
     @Column(name = "raw_payload", nullable = false, columnDefinition = "jsonb")
     @JdbcTypeCode(SqlTypes.JSON)
-    private Map<String, Object> rawPayload;
+    private String rawPayload; // JSON text, written to jsonb as-is
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
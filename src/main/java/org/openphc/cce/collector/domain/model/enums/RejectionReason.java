@@ -10,5 +10,6 @@ public enum RejectionReason {
     MISSING_SUBJECT,
     PAYLOAD_TOO_LARGE,
     DESERIALIZATION_ERROR,
-    KAFKA_PUBLISH_FAILURE
+    KAFKA_PUBLISH_FAILURE,
+    RATE_LIMITED // reported in batch results only; never dead-lettered
 }
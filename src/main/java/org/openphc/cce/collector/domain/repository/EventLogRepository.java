@@ -6,18 +6,47 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface EventLogRepository extends JpaRepository<EventLog, UUID> {
+public interface EventLogRepository extends JpaRepository<EventLog, UUID>, EventLogRepositoryCustom {
 
     Optional<EventLog> findByCloudeventsIdAndSource(String cloudeventsId, String source);
 
     Optional<EventLog> findBySourceAndSourceEventId(String source, String sourceEventId);
 
+    boolean existsBySourceAndSourceEventIdAndReceivedAtAfter(String source, String sourceEventId, OffsetDateTime since);
+
+    boolean existsBySourceAndPayloadFingerprintAndReceivedAtAfter(String source, Long payloadFingerprint,
+                                                                  OffsetDateTime since);
+
+    /**
+     * Batch resend lookup by source event id — served by idx_event_log_source_sourceeventid.
+     */
+    List<ResendKeyView> findBySourceInAndSourceEventIdInAndReceivedAtAfter(
+            Collection<String> sources, Collection<String> sourceEventIds, OffsetDateTime since);
+
+    /**
+     * Batch resend lookup by payload fingerprint — served by idx_event_log_payload_fingerprint.
+     */
+    List<ResendKeyView> findByPayloadFingerprintInAndReceivedAtAfter(
+            Collection<Long> payloadFingerprints, OffsetDateTime since);
+
     List<EventLog> findByPublishStatusAndReceivedAtBefore(PublishStatus publishStatus, OffsetDateTime cutoff);
 
     long countByPublishStatus(PublishStatus publishStatus);
+
+    /**
+     * Projection of the secondary idempotency columns.
+     */
+    interface ResendKeyView {
+        String getSource();
+
+        String getSourceEventId();
+
+        Long getPayloadFingerprint();
+    }
 }
@@ -0,0 +1,17 @@
+package org.openphc.cce.collector.domain.repository;
+
+import org.openphc.cce.collector.domain.model.EventLog;
+
+import java.util.List;
+
+/**
+ * Write operations on event_log that bypass the JPA merge path.
+ */
+public interface EventLogRepositoryCustom {
+
+    /**
+     * Write the publish outcome (status, published_at and Kafka coordinates) of each event_log
+     * row as plain UPDATEs in one JDBC batch and one transaction — no SELECT-before-UPDATE merge.
+     */
+    void updatePublishStatus(List<EventLog> eventLogs);
+}
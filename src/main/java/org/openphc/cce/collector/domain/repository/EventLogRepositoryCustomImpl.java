@@ -0,0 +1,41 @@
+package org.openphc.cce.collector.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.openphc.cce.collector.domain.model.EventLog;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link EventLogRepositoryCustom}. The WHERE clause includes
+ * received_at (the partition key) so each UPDATE touches a single partition.
+ */
+@RequiredArgsConstructor
+class EventLogRepositoryCustomImpl implements EventLogRepositoryCustom {
+
+    private static final String UPDATE_PUBLISH_STATUS = """
+            UPDATE event_log
+               SET publish_status = ?, published_at = ?, kafka_topic = ?, kafka_partition = ?, kafka_offset = ?
+             WHERE id = ? AND received_at = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void updatePublishStatus(List<EventLog> eventLogs) {
+        if (eventLogs.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_PUBLISH_STATUS, eventLogs, eventLogs.size(), (ps, eventLog) -> {
+            ps.setString(1, eventLog.getPublishStatus().name());
+            ps.setObject(2, eventLog.getPublishedAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+            ps.setString(3, eventLog.getKafkaTopic());
+            ps.setObject(4, eventLog.getKafkaPartition(), Types.INTEGER);
+            ps.setObject(5, eventLog.getKafkaOffset(), Types.BIGINT);
+            ps.setObject(6, eventLog.getId());
+            ps.setObject(7, eventLog.getReceivedAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+        });
+    }
+}
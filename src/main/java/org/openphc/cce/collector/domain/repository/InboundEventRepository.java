@@ -6,11 +6,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface InboundEventRepository extends JpaRepository<InboundEvent, UUID> {
+public interface InboundEventRepository extends JpaRepository<InboundEvent, UUID>, InboundEventRepositoryCustom {
 
     Optional<InboundEvent> findByCloudeventsIdAndSource(String cloudeventsId, String source);
 
@@ -18,5 +20,19 @@ public interface InboundEventRepository extends JpaRepository<InboundEvent, UUID
 
     boolean existsByCloudeventsIdAndSourceAndReceivedAtAfter(String cloudeventsId, String source, OffsetDateTime since);
 
+    /**
+     * Batch dedup lookup — returns only the (cloudeventsId, source) columns of matching rows.
+     */
+    List<EventKeyView> findByCloudeventsIdInAndReceivedAtAfter(Collection<String> cloudeventsIds, OffsetDateTime since);
+
     long countByStatus(InboundStatus status);
+
+    /**
+     * Projection of the dedup key columns.
+     */
+    interface EventKeyView {
+        String getCloudeventsId();
+
+        String getSource();
+    }
 }
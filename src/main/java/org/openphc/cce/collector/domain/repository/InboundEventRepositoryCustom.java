@@ -0,0 +1,35 @@
+package org.openphc.cce.collector.domain.repository;
+
+import org.openphc.cce.collector.domain.model.InboundEvent;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Operations on inbound_event that bypass the JPA persist path.
+ */
+public interface InboundEventRepositoryCustom {
+
+    /**
+     * Insert the rows whose (cloudevents_id, source) is not already present, with
+     * {@code INSERT ... ON CONFLICT DO NOTHING RETURNING id}. Ids are assigned here if absent.
+     * A row that hits uq_inbound_event_id_source — stored earlier, or by a concurrent request —
+     * is skipped instead of failing the transaction.
+     *
+     * @return the ids of the rows actually inserted
+     */
+    Set<UUID> insertIfAbsent(List<InboundEvent> events);
+
+    /**
+     * Stream the dedup key and received_at of every row received after {@code since}, with a
+     * server-side cursor, handing each to {@code consumer} without building a result list.
+     */
+    void streamKeysSince(OffsetDateTime since, EventKeyConsumer consumer);
+
+    @FunctionalInterface
+    interface EventKeyConsumer {
+        void accept(String source, String cloudeventsId, OffsetDateTime receivedAt);
+    }
+}
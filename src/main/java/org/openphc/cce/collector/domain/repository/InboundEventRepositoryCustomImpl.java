@@ -0,0 +1,95 @@
+package org.openphc.cce.collector.domain.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.openphc.cce.collector.domain.model.InboundEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JDBC implementation of {@link InboundEventRepositoryCustom}. The key stream runs in a read-only
+ * transaction so the PostgreSQL driver honours the fetch size and streams through a cursor.
+ */
+@RequiredArgsConstructor
+class InboundEventRepositoryCustomImpl implements InboundEventRepositoryCustom {
+
+    private static final String INSERT_COLUMNS = """
+            INSERT INTO inbound_event (id, cloudevents_id, source, type, spec_version, subject, event_time,
+                                       data_content_type, facility_id, correlation_id, source_event_id,
+                                       raw_payload, status, rejection_reason, received_at)
+            VALUES\s""";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?)";
+    private static final String INSERT_ON_CONFLICT = " ON CONFLICT (cloudevents_id, source) DO NOTHING RETURNING id";
+    // 15 bind parameters per row, well inside PostgreSQL's limit of 65535 per statement
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private static final String SELECT_KEYS_SINCE =
+            "SELECT source, cloudevents_id, received_at FROM inbound_event WHERE received_at > ?";
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public Set<UUID> insertIfAbsent(List<InboundEvent> events) {
+        Set<UUID> inserted = new HashSet<>();
+        for (int from = 0; from < events.size(); from += ROWS_PER_STATEMENT) {
+            List<InboundEvent> chunk = events.subList(from, Math.min(events.size(), from + ROWS_PER_STATEMENT));
+            String sql = INSERT_COLUMNS + String.join(", ", Collections.nCopies(chunk.size(), INSERT_ROW))
+                    + INSERT_ON_CONFLICT;
+            inserted.addAll(jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql);
+                int index = 1;
+                for (InboundEvent event : chunk) {
+                    if (event.getId() == null) {
+                        event.setId(UUID.randomUUID());
+                    }
+                    index = bind(ps, index, event);
+                }
+                return ps;
+            }, (rs, rowNum) -> rs.getObject(1, UUID.class)));
+        }
+        return inserted;
+    }
+
+    private static int bind(PreparedStatement ps, int index, InboundEvent event) throws SQLException {
+        ps.setObject(index++, event.getId());
+        ps.setString(index++, event.getCloudeventsId());
+        ps.setString(index++, event.getSource());
+        ps.setString(index++, event.getType());
+        ps.setString(index++, event.getSpecVersion());
+        ps.setString(index++, event.getSubject());
+        ps.setObject(index++, event.getEventTime(), Types.TIMESTAMP_WITH_TIMEZONE);
+        ps.setString(index++, event.getDataContentType());
+        ps.setString(index++, event.getFacilityId());
+        ps.setString(index++, event.getCorrelationId());
+        ps.setString(index++, event.getSourceEventId());
+        ps.setString(index++, event.getRawPayload());
+        ps.setString(index++, event.getStatus().name());
+        ps.setString(index++, event.getRejectionReason());
+        ps.setObject(index++, event.getReceivedAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+        return index;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamKeysSince(OffsetDateTime since, EventKeyConsumer consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_KEYS_SINCE);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setObject(1, since, Types.TIMESTAMP_WITH_TIMEZONE);
+            return ps;
+        }, rs -> {
+            consumer.accept(rs.getString(1), rs.getString(2), rs.getObject(3, OffsetDateTime.class));
+        });
+    }
+}
@@ -0,0 +1,284 @@
+package org.openphc.cce.collector.fhir;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.support.DefaultProfileValidationSupport;
+import ca.uhn.fhir.context.support.IValidationSupport;
+import ca.uhn.fhir.context.support.ValidationSupportContext;
+import ca.uhn.fhir.parser.DataFormatException;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.validation.FhirValidator;
+import ca.uhn.fhir.validation.ResultSeverityEnum;
+import ca.uhn.fhir.validation.SingleValidationMessage;
+import ca.uhn.fhir.validation.ValidationOptions;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.hl7.fhir.common.hapi.validation.support.CachingValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.CommonCodeSystemsTerminologyService;
+import org.hl7.fhir.common.hapi.validation.support.InMemoryTerminologyServerValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.PrePopulatedValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.SnapshotGeneratingValidationSupport;
+import org.hl7.fhir.common.hapi.validation.support.ValidationSupportChain;
+import org.hl7.fhir.common.hapi.validation.validator.FhirInstanceValidator;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.StructureDefinition;
+import org.hl7.fhir.r4.model.StructureDefinition.StructureDefinitionKind;
+import org.openphc.cce.collector.concurrency.PipelineStage;
+import org.openphc.cce.collector.fhir.FhirResourceValidator.ValidationResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FHIR R4 profile conformance (e.g. the RHIE profiles) with HAPI's instance validator — active
+ * when cce.collector.fhir-validation.profiles.enabled=true.
+ * <p>
+ * Everything the validator looks up is built once at startup: the profiles, value sets and code
+ * systems under {@code profiles.location} are loaded, differential-only profiles get their
+ * snapshots generated, and the whole {@link ValidationSupportChain} sits behind a
+ * {@link CachingValidationSupport}. Validating a sample against every profile before the bean is
+ * ready builds the validator's worker context, so no request pays for it.
+ * <p>
+ * A resource is validated against the profiles it claims in {@code meta.profile} plus the one
+ * configured for its type under {@code profiles.resource-profiles}. Validation is CPU-bound and
+ * runs on its own bounded pool (the {@code profile} stage of the pipeline metrics), so it cannot
+ * starve request or database threads; its latency is recorded as
+ * {@code cce.collector.fhir.profile.validation{profile}}. Only error and fatal messages fail a
+ * resource — the base profiles alone raise warnings for most real-world payloads.
+ */
+@Component
+@ConditionalOnProperty(name = "cce.collector.fhir-validation.profiles.enabled", havingValue = "true")
+@Slf4j
+public class FhirProfileValidator implements AutoCloseable {
+
+    static final String ASYNC_MODE = "async";
+    /** Timer tag for a resource validated against its base resource definition only. */
+    static final String BASE_PROFILE = "base";
+    /** Timer tag for a resource whose claimed profiles are none of ours. */
+    static final String UNKNOWN_PROFILE = "unknown";
+
+    private final FhirContext fhirContext;
+    private final ObjectMapper objectMapper;
+    private final Map<String, String> resourceProfiles;
+    private final boolean deferred;
+    private final Set<String> profiles = new HashSet<>();
+    private final IValidationSupport validationSupport;
+    private final FhirValidator validator;
+    private final PipelineStage pool;
+    private final MeterRegistry meterRegistry;
+
+    public FhirProfileValidator(
+            FhirContext fhirContext,
+            ObjectMapper objectMapper,
+            @Value("${cce.collector.fhir-validation.profiles.location:classpath*:fhir/profiles/*.json}") String location,
+            @Value("${cce.collector.fhir-validation.profiles.mode:sync}") String mode,
+            @Value("${cce.collector.fhir-validation.profiles.workers:0}") int workers,
+            @Value("${cce.collector.fhir-validation.profiles.queue-capacity:1000}") int queueCapacity,
+            Environment environment,
+            MeterRegistry meterRegistry) throws IOException {
+        this.fhirContext = fhirContext;
+        this.objectMapper = objectMapper;
+        this.resourceProfiles = Binder.get(environment)
+                .bind("cce.collector.fhir-validation.profiles.resource-profiles",
+                        Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        this.deferred = ASYNC_MODE.equalsIgnoreCase(mode);
+        this.meterRegistry = meterRegistry;
+
+        long start = System.nanoTime();
+        this.validationSupport = buildSupportChain(
+                new PathMatchingResourcePatternResolver().getResources(location));
+        FhirInstanceValidator instanceValidator = new FhirInstanceValidator(validationSupport);
+        this.validator = fhirContext.newValidator()
+                .setValidateAgainstStandardSchema(false)
+                .setValidateAgainstStandardSchematron(false)
+                .registerValidatorModule(instanceValidator);
+        warmUp();
+        log.info("FHIR profile validation ({} mode) ready in {} ms with profiles {}",
+                deferred ? ASYNC_MODE : "sync", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), profiles);
+
+        this.pool = new PipelineStage("profile",
+                workers > 0 ? workers : Runtime.getRuntime().availableProcessors(), queueCapacity, meterRegistry);
+    }
+
+    /**
+     * Whether non-conformance is dead-lettered after the event is accepted, rather than rejected.
+     */
+    public boolean isDeferred() {
+        return deferred;
+    }
+
+    /**
+     * Validate a FHIR resource on the profile validation pool.
+     *
+     * @param data the FHIR resource as a Map
+     * @return a future completed with the result
+     * @throws RejectedExecutionException if the pool's queue is full
+     */
+    public CompletableFuture<ValidationResult> submit(Map<String, Object> data) {
+        return pool.submit(() -> validate(data));
+    }
+
+    /**
+     * Validate a FHIR resource on the calling thread.
+     *
+     * @param data the FHIR resource as a Map
+     * @return validation result; only error and fatal messages are reported
+     */
+    public ValidationResult validate(Map<String, Object> data) {
+        String resourceType = data.get("resourceType") instanceof String type ? type : null;
+        Set<String> claimed = claimedProfiles(data);
+        ValidationOptions options = new ValidationOptions();
+        String configured = resourceType != null ? resourceProfiles.get(resourceType) : null;
+        if (configured != null && !claimed.contains(configured)) {
+            // Claimed profiles are picked up from meta.profile by the validator itself
+            options.addProfile(configured);
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            return new ValidationResult(false, List.of("data could not be serialized: " + e.getOriginalMessage()),
+                    List.of());
+        }
+
+        long start = System.nanoTime();
+        ca.uhn.fhir.validation.ValidationResult outcome = validator.validateWithResult(json, options);
+        Timer.builder("cce.collector.fhir.profile.validation")
+                .description("FHIR profile validation latency")
+                .tag("profile", profileTag(configured, claimed))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        List<String> errors = new ArrayList<>();
+        for (SingleValidationMessage message : outcome.getMessages()) {
+            if (message.getSeverity() == ResultSeverityEnum.ERROR || message.getSeverity() == ResultSeverityEnum.FATAL) {
+                errors.add(message.getLocationString() + ": " + message.getMessage());
+            }
+        }
+        return new ValidationResult(errors.isEmpty(), errors, List.of());
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * The first of our profiles the resource is validated against — bounded to the loaded
+     * profiles, so a sender's arbitrary meta.profile claims cannot add timer series.
+     */
+    private String profileTag(String configured, Set<String> claimed) {
+        for (String profile : claimed) {
+            if (profiles.contains(profile)) {
+                return profile;
+            }
+        }
+        if (configured != null) {
+            return profiles.contains(configured) ? configured : UNKNOWN_PROFILE;
+        }
+        return claimed.isEmpty() ? BASE_PROFILE : UNKNOWN_PROFILE;
+    }
+
+    private static Set<String> claimedProfiles(Map<String, Object> data) {
+        Set<String> claimed = new LinkedHashSet<>();
+        if (data.get("meta") instanceof Map<?, ?> meta && meta.get("profile") instanceof List<?> list) {
+            for (Object profile : list) {
+                if (profile instanceof String url) {
+                    claimed.add(url);
+                }
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Core R4 definitions and terminology, our conformance resources with snapshots generated, all
+     * behind one cache.
+     */
+    private IValidationSupport buildSupportChain(Resource[] resources) throws IOException {
+        PrePopulatedValidationSupport prePopulated = new PrePopulatedValidationSupport(fhirContext);
+        IParser parser = fhirContext.newJsonParser();
+        List<StructureDefinition> structureDefinitions = new ArrayList<>();
+        for (Resource resource : resources) {
+            IBaseResource parsed;
+            try (InputStream in = resource.getInputStream()) {
+                parsed = parser.parseResource(in);
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("FHIR conformance resource " + resource + " could not be parsed", e);
+            }
+            List<IBaseResource> contents = new ArrayList<>();
+            if (parsed instanceof Bundle bundle) {
+                bundle.getEntry().forEach(entry -> contents.add(entry.getResource()));
+            } else {
+                contents.add(parsed);
+            }
+            for (IBaseResource content : contents) {
+                if (content instanceof StructureDefinition structureDefinition) {
+                    structureDefinitions.add(structureDefinition);
+                }
+                prePopulated.addResource(content);
+            }
+        }
+
+        SnapshotGeneratingValidationSupport snapshots = new SnapshotGeneratingValidationSupport(fhirContext);
+        ValidationSupportChain chain = new ValidationSupportChain(
+                new DefaultProfileValidationSupport(fhirContext),
+                prePopulated,
+                new CommonCodeSystemsTerminologyService(fhirContext),
+                new InMemoryTerminologyServerValidationSupport(fhirContext),
+                snapshots);
+
+        // Generate once here rather than on first use; profiles may be based on one another
+        ValidationSupportContext context = new ValidationSupportContext(chain);
+        for (StructureDefinition structureDefinition : structureDefinitions) {
+            profiles.add(structureDefinition.getUrl());
+            if (!structureDefinition.hasSnapshot()) {
+                IBaseResource generated = snapshots.generateSnapshot(context, structureDefinition,
+                        structureDefinition.getUrl(), null, structureDefinition.getName());
+                prePopulated.addStructureDefinition(generated != null ? generated : structureDefinition);
+            }
+        }
+        return new CachingValidationSupport(chain);
+    }
+
+    /**
+     * Validate a sample Patient, and a bare resource of each profiled type against its profile, which
+     * loads the core definitions and terminology into the cache and builds the validator's worker
+     * context.
+     */
+    private void warmUp() {
+        validationSupport.fetchAllStructureDefinitions();
+        // A coded element, so the terminology services load their value sets now too
+        validator.validateWithResult("{\"resourceType\":\"Patient\",\"gender\":\"unknown\"}");
+        for (String url : profiles) {
+            if (validationSupport.fetchStructureDefinition(url) instanceof StructureDefinition profile
+                    && profile.getKind() == StructureDefinitionKind.RESOURCE) {
+                validator.validateWithResult("{\"resourceType\":\"" + profile.getType() + "\"}",
+                        new ValidationOptions().addProfile(url));
+            }
+        }
+    }
+}
@@ -2,10 +2,11 @@ package org.openphc.cce.collector.fhir;
 
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.parser.DataFormatException;
-import ca.uhn.fhir.parser.IParser;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import ca.uhn.fhir.parser.IJsonLikeParser;
+import ca.uhn.fhir.parser.json.jackson.JacksonStructure;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
 import org.hl7.fhir.instance.model.api.IBaseResource;
 import org.springframework.stereotype.Component;
@@ -15,14 +16,22 @@ import java.util.Optional;
 
 /**
  * Parses FHIR R4 resources from JSON using HAPI FHIR.
+ * <p>
+ * Resources are handed to HAPI as a Jackson tree rather than as JSON text, so the payload is not
+ * serialized to a String and tokenized a second time. HAPI parsers are not thread-safe, so each
+ * thread keeps its own; on virtual threads that is one per request, as before.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class FhirResourceParser {
 
-    private final FhirContext fhirContext;
     private final ObjectMapper objectMapper;
+    private final ThreadLocal<IJsonLikeParser> parsers;
+
+    public FhirResourceParser(FhirContext fhirContext, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.parsers = ThreadLocal.withInitial(() -> (IJsonLikeParser) fhirContext.newJsonParser());
+    }
 
     /**
      * Parse a Map (from CloudEvents data) into a HAPI FHIR IBaseResource.
@@ -31,18 +40,27 @@ public class FhirResourceParser {
      * @return parsed resource, or empty if parsing fails
      */
     public Optional<IBaseResource> parse(Map<String, Object> data) {
+        return parse(objectMapper.<JsonNode>valueToTree(data));
+    }
+
+    /**
+     * Parse a Jackson tree into a HAPI FHIR IBaseResource.
+     *
+     * @param data the FHIR resource as a JSON object node
+     * @return parsed resource, or empty if parsing fails
+     */
+    public Optional<IBaseResource> parse(JsonNode data) {
+        if (!(data instanceof ObjectNode object)) {
+            log.warn("FHIR parse error: resource is not a JSON object");
+            return Optional.empty();
+        }
         try {
-            String json = objectMapper.writeValueAsString(data);
-            IParser parser = fhirContext.newJsonParser();
-            parser.setPrettyPrint(false);
-            IBaseResource resource = parser.parseResource(json);
-            return Optional.of(resource);
+            JacksonStructure structure = new JacksonStructure();
+            structure.setNativeObject(object);
+            return Optional.of(parsers.get().parseResource(structure));
         } catch (DataFormatException e) {
             log.warn("FHIR parse error: {}", e.getMessage());
             return Optional.empty();
-        } catch (JsonProcessingException e) {
-            log.warn("JSON serialization error for FHIR data: {}", e.getMessage());
-            return Optional.empty();
         }
     }
 
@@ -1,8 +1,8 @@
 package org.openphc.cce.collector.fhir;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -12,13 +12,37 @@ import java.util.Optional;
 
 /**
  * Validates FHIR R4 resources structurally (not clinical profile conformance).
+ * <p>
+ * In the default {@code structural} mode, resource types compiled by {@link StructuralFhirValidator}
+ * are checked without building the HAPI object model; other types, and every type in {@code hapi}
+ * mode, are checked by a full HAPI parse.
+ * <p>
+ * The structural walk also finds what HAPI's lenient parse accepts silently (unknown elements,
+ * cardinality, shape). Those findings only become warnings with {@code structural-warnings}
+ * enabled, so by default both modes give the same accept/reject verdict, strict mode included.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class FhirResourceValidator {
 
+    static final String HAPI_MODE = "hapi";
+
     private final FhirResourceParser fhirResourceParser;
+    private final StructuralFhirValidator structuralValidator;
+    private final boolean structural;
+    private final boolean structuralWarnings;
+
+    public FhirResourceValidator(
+            FhirResourceParser fhirResourceParser,
+            StructuralFhirValidator structuralValidator,
+            @Value("${cce.collector.fhir-validation.mode:structural}") String mode,
+            @Value("${cce.collector.fhir-validation.structural-warnings:false}") boolean structuralWarnings) {
+        this.fhirResourceParser = fhirResourceParser;
+        this.structuralValidator = structuralValidator;
+        this.structural = !HAPI_MODE.equalsIgnoreCase(mode);
+        this.structuralWarnings = structuralWarnings;
+        log.info("FHIR validation mode: {}", structural ? "structural" : HAPI_MODE);
+    }
 
     /**
      * Validate a FHIR resource from CloudEvents data field.
@@ -38,11 +62,26 @@ public class FhirResourceValidator {
             return new ValidationResult(false, errors, warnings);
         }
 
-        // Attempt HAPI FHIR parse
-        Optional<IBaseResource> parsed = fhirResourceParser.parse(data);
-        if (parsed.isEmpty()) {
-            errors.add("FHIR R4 parse failed: data is not a valid FHIR resource");
-            return new ValidationResult(false, errors, warnings);
+        // Structural check where a schema is compiled, HAPI FHIR parse otherwise
+        Optional<ValidationResult> structuralResult = structural
+                ? structuralValidator.validate(data)
+                : Optional.empty();
+        if (structuralResult.isPresent()) {
+            if (!structuralResult.get().valid()) {
+                return structuralResult.get();
+            }
+            if (structuralWarnings) {
+                warnings.addAll(structuralResult.get().warnings());
+            } else if (!structuralResult.get().warnings().isEmpty()) {
+                log.debug("Structural findings not reported as warnings: {}", structuralResult.get().warnings());
+            }
+        } else {
+            // Attempt HAPI FHIR parse
+            Optional<IBaseResource> parsed = fhirResourceParser.parse(data);
+            if (parsed.isEmpty()) {
+                errors.add("FHIR R4 parse failed: data is not a valid FHIR resource");
+                return new ValidationResult(false, errors, warnings);
+            }
         }
 
         // Cross-check subject reference (warning only)
@@ -0,0 +1,509 @@
+package org.openphc.cce.collector.fhir;
+
+import ca.uhn.fhir.context.BaseRuntimeChildDefinition;
+import ca.uhn.fhir.context.BaseRuntimeElementCompositeDefinition;
+import ca.uhn.fhir.context.BaseRuntimeElementDefinition;
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.RuntimeChildChoiceDefinition;
+import ca.uhn.fhir.context.RuntimeChildExtension;
+import ca.uhn.fhir.context.RuntimeChildPrimitiveEnumerationDatatypeDefinition;
+import ca.uhn.fhir.parser.DataFormatException;
+import lombok.extern.slf4j.Slf4j;
+import org.hl7.fhir.instance.model.api.IBaseEnumFactory;
+import org.hl7.fhir.instance.model.api.IPrimitiveType;
+import org.openphc.cce.collector.fhir.FhirResourceValidator.ValidationResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Structural FHIR R4 validation in one pass over the payload's Map tree, without building the HAPI
+ * object model.
+ * <p>
+ * Schemas are compiled at startup, for the configured resource types, from HAPI's R4 runtime
+ * definitions (which are generated from the R4 StructureDefinitions): element names, cardinality,
+ * choice types, primitive types and bound code sets. Errors are what HAPI's parser rejects — an
+ * invalid primitive value, a contained resource without a resourceType. What the parser tolerates
+ * is reported as a warning: unknown elements, cardinality and shape violations, more than one value
+ * for a choice element. Primitive values outside the fast checks are handed to the HAPI primitive
+ * type itself, so the two never disagree on a value.
+ * <p>
+ * Resource types without a schema (including contained ones) return empty, and the caller falls
+ * back to a full HAPI parse.
+ */
+@Component
+@Slf4j
+public class StructuralFhirValidator {
+
+    private static final String ROOT = "data";
+
+    private final Map<String, Type> resources = new HashMap<>();
+
+    public StructuralFhirValidator(
+            FhirContext fhirContext,
+            @Value("${cce.collector.fhir-validation.resource-types:Patient,Encounter,Observation,Condition,"
+                    + "MedicationRequest,MedicationDispense,ServiceRequest,DiagnosticReport,Procedure,EpisodeOfCare}")
+            List<String> resourceTypes) {
+        Compiler compiler = new Compiler(fhirContext);
+        for (String resourceType : resourceTypes) {
+            resources.put(resourceType, compiler.composite(fhirContext.getResourceDefinition(resourceType)));
+        }
+        log.info("Structural FHIR validation compiled for {}", resourceTypes);
+    }
+
+    /**
+     * Validate a FHIR resource from the CloudEvents data field.
+     *
+     * @param data the FHIR resource as a Map
+     * @return the result, or empty if the resource or one it contains has no compiled schema
+     */
+    public Optional<ValidationResult> validate(Map<String, Object> data) {
+        Type type = data.get("resourceType") instanceof String resourceType ? resources.get(resourceType) : null;
+        if (type == null) {
+            return Optional.empty();
+        }
+        Walk walk = new Walk();
+        walk.composite(data, type, new Path(null, ROOT, -1));
+        if (walk.unsupported) {
+            return Optional.empty();
+        }
+        return Optional.of(new ValidationResult(walk.errors.isEmpty(), walk.errors, walk.warnings));
+    }
+
+    // ---- Schema ----
+
+    private enum Kind { COMPOSITE, PRIMITIVE, RESOURCE, OTHER }
+
+    /** A compiled data type, resource or backbone element. */
+    private static final class Type {
+        final String name;
+        final Kind kind;
+        final Format format;
+        final Map<String, Element> elements = new HashMap<>();
+        final List<Child> required = new ArrayList<>();
+
+        Type(String name, Kind kind, Format format) {
+            this.name = name;
+            this.kind = kind;
+            this.format = format;
+        }
+    }
+
+    /** One child definition; a choice child is shared by all its typed element names. */
+    private record Child(String name, int min, int max, boolean choice, int requiredIndex) {}
+
+    /** A JSON property name of a composite, bound to its child definition and element type. */
+    private record Element(Child child, Type type, Set<String> codes,
+                           BaseRuntimeElementDefinition<?> definition, Object constructorArgument) {}
+
+    private static final class Compiler {
+
+        private final FhirContext fhirContext;
+        private final Map<BaseRuntimeElementDefinition<?>, Type> compiled = new IdentityHashMap<>();
+
+        Compiler(FhirContext fhirContext) {
+            this.fhirContext = fhirContext;
+        }
+
+        Type composite(BaseRuntimeElementCompositeDefinition<?> definition) {
+            Type type = compiled.get(definition);
+            if (type != null) {
+                return type;
+            }
+            type = new Type(definition.getName(), Kind.COMPOSITE, null);
+            compiled.put(definition, type);
+            for (BaseRuntimeChildDefinition child : definition.getChildren()) {
+                boolean choice = child instanceof RuntimeChildChoiceDefinition;
+                int requiredIndex = child.getMin() > 0 ? type.required.size() : -1;
+                Child compiledChild = new Child(child.getElementName() + (choice ? "[x]" : ""),
+                        child.getMin(), child.getMax(), choice, requiredIndex);
+                if (requiredIndex >= 0) {
+                    type.required.add(compiledChild);
+                }
+                if (child instanceof RuntimeChildExtension) {
+                    BaseRuntimeElementDefinition<?> extension = fhirContext.getElementDefinition("Extension");
+                    type.elements.put(child.getElementName(), element(compiledChild, child, extension));
+                } else if (choice) {
+                    for (String name : child.getValidChildNames()) {
+                        type.elements.put(name, element(compiledChild, child, child.getChildByName(name)));
+                    }
+                } else {
+                    type.elements.put(child.getElementName(),
+                            element(compiledChild, child, child.getChildByName(child.getElementName())));
+                }
+            }
+            return type;
+        }
+
+        private Element element(Child child, BaseRuntimeChildDefinition definition,
+                                BaseRuntimeElementDefinition<?> elementDefinition) {
+            Type type = switch (elementDefinition.getChildType()) {
+                case PRIMITIVE_DATATYPE, ID_DATATYPE -> compiled.computeIfAbsent(elementDefinition,
+                        d -> new Type(d.getName(), Kind.PRIMITIVE, Format.of(d.getName())));
+                case COMPOSITE_DATATYPE, RESOURCE_BLOCK ->
+                        composite((BaseRuntimeElementCompositeDefinition<?>) elementDefinition);
+                case CONTAINED_RESOURCE_LIST, CONTAINED_RESOURCES, RESOURCE -> compiled.computeIfAbsent(
+                        elementDefinition, d -> new Type(d.getName(), Kind.RESOURCE, null));
+                default -> compiled.computeIfAbsent(elementDefinition, d -> new Type(d.getName(), Kind.OTHER, null));
+            };
+            Object constructorArgument = definition.getInstanceConstructorArguments();
+            Set<String> codes = definition instanceof RuntimeChildPrimitiveEnumerationDatatypeDefinition enumeration
+                    ? codes(enumeration, constructorArgument)
+                    : null;
+            return new Element(child, type, codes, elementDefinition, constructorArgument);
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private static Set<String> codes(RuntimeChildPrimitiveEnumerationDatatypeDefinition definition,
+                                         Object factory) {
+            Set<String> codes = new HashSet<>();
+            if (factory instanceof IBaseEnumFactory enumFactory && definition.getBoundEnumType() != null) {
+                for (Enum<?> constant : definition.getBoundEnumType().getEnumConstants()) {
+                    try {
+                        String code = enumFactory.toCode(constant);
+                        if (code != null && enumFactory.fromCode(code) == constant) {
+                            codes.add(code);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        // the NULL constant has no code
+                    }
+                }
+            }
+            return codes;
+        }
+    }
+
+    // ---- Walk ----
+
+    /** Element path for messages, e.g. data.component[1].valueQuantity.value; built only on a finding. */
+    private record Path(Path parent, String name, int index) {
+
+        Path child(String childName) {
+            return new Path(this, childName, -1);
+        }
+
+        Path index(int childIndex) {
+            return new Path(parent, name, childIndex);
+        }
+
+        @Override
+        public String toString() {
+            String self = index >= 0 ? name + "[" + index + "]" : name;
+            return parent == null ? self : parent + "." + self;
+        }
+    }
+
+    private final class Walk {
+
+        final List<String> errors = new ArrayList<>();
+        final List<String> warnings = new ArrayList<>();
+        boolean unsupported;
+
+        void composite(Map<?, ?> object, Type type, Path path) {
+            long present = 0;
+            Map<Child, String> choices = null;
+            for (Map.Entry<?, ?> entry : object.entrySet()) {
+                String name = String.valueOf(entry.getKey());
+                Object value = entry.getValue();
+                Element element = type.elements.get(name);
+                if (element == null) {
+                    if (name.startsWith("_") && value != null
+                            && (element = type.elements.get(name.substring(1))) != null
+                            && element.type.kind == Kind.PRIMITIVE) {
+                        present |= requiredBit(element.child);
+                    } else if (!"resourceType".equals(name) && !"fhir_comments".equals(name)) {
+                        warnings.add(path.child(name) + ": unknown element");
+                    }
+                    continue;
+                }
+                if (value == null) {
+                    continue;
+                }
+                present |= requiredBit(element.child);
+                if (element.child.choice) {
+                    if (choices == null) {
+                        choices = new HashMap<>(4);
+                    }
+                    String other = choices.putIfAbsent(element.child, name);
+                    if (other != null) {
+                        warnings.add(path.child(element.child.name) + ": more than one value (" + other + ", "
+                                + name + ")");
+                    }
+                }
+                value(value, element, path.child(name));
+            }
+            if (Long.bitCount(present) < type.required.size()) {
+                for (Child child : type.required) {
+                    if ((present & requiredBit(child)) == 0) {
+                        warnings.add(path.child(child.name) + ": minimum cardinality " + child.min + " not met");
+                    }
+                }
+            }
+        }
+
+        private static long requiredBit(Child child) {
+            return child.requiredIndex >= 0 && child.requiredIndex < Long.SIZE ? 1L << child.requiredIndex : 0;
+        }
+
+        private void value(Object value, Element element, Path path) {
+            int max = element.child.max;
+            if (value instanceof List<?> list) {
+                if (max == 1) {
+                    warnings.add(path + ": is an array, maximum cardinality is 1");
+                } else if (max > 1 && list.size() > max) {
+                    warnings.add(path + ": " + list.size() + " values, maximum cardinality is " + max);
+                }
+                int i = 0;
+                for (Object item : list) {
+                    item(item, element, path.index(i++));
+                }
+            } else {
+                if (max != 1) {
+                    warnings.add(path + ": must be an array");
+                }
+                item(value, element, path);
+            }
+        }
+
+        private void item(Object item, Element element, Path path) {
+            if (item == null) {
+                return;
+            }
+            Type type = element.type;
+            switch (type.kind) {
+                case PRIMITIVE -> {
+                    if (item instanceof Map<?, ?> || item instanceof List<?>) {
+                        warnings.add(path + ": expected a " + type.name + " value");
+                    } else if (!valid(element, item.toString())) {
+                        errors.add(path + ": invalid " + type.name + " value '" + item + "'");
+                    }
+                }
+                case COMPOSITE -> {
+                    if (item instanceof Map<?, ?> object) {
+                        composite(object, type, path);
+                    } else {
+                        warnings.add(path + ": expected a " + type.name + " object");
+                    }
+                }
+                case RESOURCE -> {
+                    if (!(item instanceof Map<?, ?> object)) {
+                        warnings.add(path + ": expected a resource object");
+                    } else if (!(object.get("resourceType") instanceof String resourceType)) {
+                        errors.add(path + ": resourceType is missing");
+                    } else if (resources.get(resourceType) instanceof Type contained) {
+                        composite(object, contained, path);
+                    } else {
+                        // A contained resource without a schema sends the whole payload to the HAPI parser
+                        unsupported = true;
+                    }
+                }
+                case OTHER -> {
+                    // narrative xhtml: any value, as with the parser
+                }
+            }
+        }
+
+        private static boolean valid(Element element, String value) {
+            if (value.isEmpty()) {
+                return true;
+            }
+            boolean fast = element.codes != null ? element.codes.contains(value) : element.type.format.accepts(value);
+            return fast || parsesAsHapiPrimitive(element, value);
+        }
+
+        private static boolean parsesAsHapiPrimitive(Element element, String value) {
+            try {
+                IPrimitiveType<?> primitive = (IPrimitiveType<?>) element.definition.newInstance(
+                        element.constructorArgument);
+                primitive.setValueAsString(value);
+                return true;
+            } catch (DataFormatException | IllegalArgumentException e) {
+                return false;
+            }
+        }
+    }
+
+    // ---- Primitive formats ----
+
+    /**
+     * Fast checks for the common primitive formats. A value they accept is one the HAPI primitive
+     * accepts; anything else is decided by the HAPI primitive.
+     */
+    private enum Format {
+        ANY, NONE, BOOLEAN, INTEGER, POSITIVE_INT, UNSIGNED_INT, DECIMAL, DATE, DATE_TIME, INSTANT;
+
+        static Format of(String fhirType) {
+            return switch (fhirType) {
+                case "string", "code", "id", "uri", "url", "canonical", "oid", "uuid", "markdown" -> ANY;
+                case "boolean" -> BOOLEAN;
+                case "integer" -> INTEGER;
+                case "positiveInt" -> POSITIVE_INT;
+                case "unsignedInt" -> UNSIGNED_INT;
+                case "decimal" -> DECIMAL;
+                case "date" -> DATE;
+                case "dateTime" -> DATE_TIME;
+                case "instant" -> INSTANT;
+                default -> NONE;
+            };
+        }
+
+        boolean accepts(String value) {
+            return switch (this) {
+                case ANY -> true;
+                case NONE -> false;
+                case BOOLEAN -> "true".equals(value) || "false".equals(value);
+                case INTEGER -> isInteger(value, value.startsWith("-") ? 1 : 0, false);
+                case POSITIVE_INT -> isInteger(value, 0, true);
+                case UNSIGNED_INT -> isInteger(value, 0, false);
+                case DECIMAL -> isDecimal(value);
+                case DATE -> isDateTime(value, false, false);
+                case DATE_TIME -> isDateTime(value, true, false);
+                case INSTANT -> isDateTime(value, true, true);
+            };
+        }
+
+        /** 1 to 9 digits from {@code from}, so the value fits an int. */
+        private static boolean isInteger(String value, int from, boolean positive) {
+            int length = value.length() - from;
+            if (length < 1 || length > 9 || !digits(value, from, length)) {
+                return false;
+            }
+            return !positive || Integer.parseInt(value) > 0;
+        }
+
+        /** -?digits(.digits)?([eE][+-]?digits)? */
+        private static boolean isDecimal(String value) {
+            int n = value.length();
+            int i = value.startsWith("-") ? 1 : 0;
+            int start = i;
+            while (i < n && isDigit(value.charAt(i))) {
+                i++;
+            }
+            if (i == start) {
+                return false;
+            }
+            if (i < n && value.charAt(i) == '.') {
+                start = ++i;
+                while (i < n && isDigit(value.charAt(i))) {
+                    i++;
+                }
+                if (i == start) {
+                    return false;
+                }
+            }
+            if (i < n && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+                i++;
+                if (i < n && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+                    i++;
+                }
+                start = i;
+                while (i < n && isDigit(value.charAt(i))) {
+                    i++;
+                }
+                if (i == start) {
+                    return false;
+                }
+            }
+            return i == n;
+        }
+
+        /**
+         * YYYY, YYYY-MM, YYYY-MM-DD, and with time allowed YYYY-MM-DDThh:mm:ss[.fff](Z|+hh:mm|-hh:mm);
+         * a time is required for instants.
+         */
+        private static boolean isDateTime(String value, boolean timeAllowed, boolean timeRequired) {
+            int n = value.length();
+            if (n < 4 || !digits(value, 0, 4)) {
+                return false;
+            }
+            int year = number(value, 0, 4);
+            if (year < 1) {
+                return false;
+            }
+            if (n == 4) {
+                return !timeRequired;
+            }
+            if (n < 7 || value.charAt(4) != '-' || !digits(value, 5, 2)) {
+                return false;
+            }
+            int month = number(value, 5, 2);
+            if (month < 1 || month > 12) {
+                return false;
+            }
+            if (n == 7) {
+                return !timeRequired;
+            }
+            if (n < 10 || value.charAt(7) != '-' || !digits(value, 8, 2)) {
+                return false;
+            }
+            int day = number(value, 8, 2);
+            if (day < 1 || day > daysInMonth(year, month)) {
+                return false;
+            }
+            if (n == 10) {
+                return !timeRequired;
+            }
+            if (!timeAllowed || n < 20 || value.charAt(10) != 'T' || value.charAt(13) != ':'
+                    || value.charAt(16) != ':' || !digits(value, 11, 2) || !digits(value, 14, 2)
+                    || !digits(value, 17, 2)) {
+                return false;
+            }
+            if (number(value, 11, 2) > 23 || number(value, 14, 2) > 59 || number(value, 17, 2) > 59) {
+                return false;
+            }
+            int i = 19;
+            if (value.charAt(i) == '.') {
+                int start = ++i;
+                while (i < n && isDigit(value.charAt(i))) {
+                    i++;
+                }
+                if (i == start || i - start > 3) {
+                    return false;
+                }
+            }
+            if (i == n - 1) {
+                return value.charAt(i) == 'Z';
+            }
+            return i == n - 6 && (value.charAt(i) == '+' || value.charAt(i) == '-')
+                    && digits(value, i + 1, 2) && value.charAt(i + 3) == ':' && digits(value, i + 4, 2)
+                    && number(value, i + 1, 2) <= 14 && number(value, i + 4, 2) <= 59;
+        }
+
+        private static int daysInMonth(int year, int month) {
+            return switch (month) {
+                case 2 -> (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+                case 4, 6, 9, 11 -> 30;
+                default -> 31;
+            };
+        }
+
+        private static boolean digits(String value, int from, int count) {
+            for (int i = from; i < from + count; i++) {
+                if (!isDigit(value.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int number(String value, int from, int count) {
+            int result = 0;
+            for (int i = from; i < from + count; i++) {
+                result = result * 10 + (value.charAt(i) - '0');
+            }
+            return result;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+}
@@ -46,4 +46,12 @@ public class InboundEventProducer {
                     throw new KafkaPublishException(event, ex);
                 });
     }
+
+    /**
+     * Flush buffered records immediately instead of waiting for linger.ms — used after
+     * sending a batch so all records go out in as few produce requests as possible.
+     */
+    public void flush() {
+        kafkaTemplate.flush();
+    }
 }
@@ -0,0 +1,114 @@
+package org.openphc.cce.collector.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.api.dto.EventIngestionResponse;
+import org.openphc.cce.collector.domain.model.DeadLetterEvent;
+import org.openphc.cce.collector.domain.model.enums.RejectionReason;
+import org.openphc.cce.collector.service.DeadLetterService;
+import org.openphc.cce.collector.service.EventIngestionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumes structured-mode CloudEvents from the raw-intake topic and feeds each poll through
+ * the batch ingestion pipeline (validate → dedup → persist → publish). The container commits
+ * the poll's offsets only after this listener returns, so every committed record has been
+ * written to the outbox or dead-lettered; a failure redelivers the poll and dedup absorbs
+ * the records already persisted.
+ */
+@Component
+@ConditionalOnProperty(name = "cce.collector.kafka-intake.enabled", havingValue = "true")
+@Slf4j
+public class RawIntakeConsumer {
+
+    private final EventIngestionService ingestionService;
+    private final DeadLetterService deadLetterService;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final int maxBatchSize;
+
+    public RawIntakeConsumer(
+            EventIngestionService ingestionService,
+            DeadLetterService deadLetterService,
+            ObjectMapper objectMapper,
+            @Value("${cce.collector.batch.max-size:500}") int maxBatchSize) {
+        this.ingestionService = ingestionService;
+        this.deadLetterService = deadLetterService;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(EventIngestionRequest.class);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @KafkaListener(
+            id = "raw-intake",
+            topics = "${cce.kafka.topics.raw-intake}",
+            containerFactory = "rawIntakeListenerContainerFactory")
+    public void consume(List<ConsumerRecord<String, byte[]>> records) {
+        List<EventIngestionRequest> requests = new ArrayList<>(Math.min(records.size(), maxBatchSize));
+        List<DeadLetterEvent> unreadable = new ArrayList<>();
+        int accepted = 0;
+
+        for (ConsumerRecord<String, byte[]> record : records) {
+            if (record.value() == null) {
+                continue; // tombstone
+            }
+            try {
+                EventIngestionRequest request = requestReader.readValue(record.value());
+                request.setRawJson(new String(record.value(), StandardCharsets.UTF_8));
+                requests.add(request);
+            } catch (JsonProcessingException e) {
+                unreadable.add(buildUnreadable(record, e.getOriginalMessage()));
+            } catch (IOException e) {
+                unreadable.add(buildUnreadable(record, e.getMessage()));
+            }
+            if (requests.size() >= maxBatchSize) {
+                accepted += ingest(requests);
+            }
+        }
+        accepted += ingest(requests);
+        if (!unreadable.isEmpty()) {
+            deadLetterService.persistAll(unreadable);
+        }
+
+        log.info("Raw intake poll processed: records={}, accepted={}, unreadable={}",
+                records.size(), accepted, unreadable.size());
+    }
+
+    private int ingest(List<EventIngestionRequest> requests) {
+        if (requests.isEmpty()) {
+            return 0;
+        }
+        int accepted = 0;
+        for (EventIngestionResponse result : ingestionService.ingestPolledBatch(requests)) {
+            if ("accepted".equals(result.getStatus())) {
+                accepted++;
+            }
+        }
+        requests.clear();
+        return accepted;
+    }
+
+    private DeadLetterEvent buildUnreadable(ConsumerRecord<String, byte[]> record, String details) {
+        return deadLetterService.buildValidationFailure(
+                null, null, null, null, null,
+                objectMapper.createObjectNode()
+                        .put("topic", record.topic())
+                        .put("partition", record.partition())
+                        .put("offset", record.offset())
+                        .put("raw", new String(record.value(), StandardCharsets.UTF_8))
+                        .toString(),
+                RejectionReason.DESERIALIZATION_ERROR, details, null, null);
+    }
+}
@@ -19,6 +19,21 @@ public class CloudEventValidator {
      * Validate the CloudEvents envelope. Throws CloudEventValidationException on failure.
      */
     public void validate(EventIngestionRequest request) {
+        validateAttributes(request);
+
+        // data — required by CCE
+        if (request.getData() == null || request.getData().isEmpty()) {
+            throw new CloudEventValidationException("Missing required CloudEvents field: 'data'", "data");
+        }
+
+        log.debug("CloudEvents envelope validation passed for event id={}", request.getId());
+    }
+
+    /**
+     * Validate the context attributes only (everything except data) — used in binary
+     * content mode, where attributes arrive as ce-* headers before the body is read.
+     */
+    public void validateAttributes(EventIngestionRequest request) {
         // specversion must be "1.0"
         if (request.getSpecversion() == null || request.getSpecversion().isBlank()) {
             throw new CloudEventValidationException("Missing required CloudEvents field: 'specversion'", "specversion");
@@ -52,12 +67,5 @@ public class CloudEventValidator {
             throw new CloudEventValidationException(
                     "Missing required CloudEvents field: 'subject' (patient UPID required by CCE)", "subject");
         }
-
-        // data — required by CCE
-        if (request.getData() == null || request.getData().isEmpty()) {
-            throw new CloudEventValidationException("Missing required CloudEvents field: 'data'", "data");
-        }
-
-        log.debug("CloudEvents envelope validation passed for event id={}", request.getId());
     }
 }
@@ -12,7 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
-import java.util.Map;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -36,13 +36,36 @@ public class DeadLetterService {
             String source,
             String type,
             String subject,
-            Map<String, Object> rawPayload,
+            String rawPayload,
             RejectionReason reason,
             String errorDetails,
             String correlationId,
             String facilityId) {
 
-        DeadLetterEvent dle = DeadLetterEvent.builder()
+        DeadLetterEvent dle = buildValidationFailure(inboundEventId, cloudeventsId, source, type, subject,
+                rawPayload, reason, errorDetails, correlationId, facilityId);
+
+        DeadLetterEvent saved = deadLetterEventRepository.save(dle);
+        log.error("Dead-lettered event: id={}, source={}, reason={}", cloudeventsId, source, reason);
+        return saved;
+    }
+
+    /**
+     * Build (without persisting) a dead-letter event for a validation failure.
+     */
+    public DeadLetterEvent buildValidationFailure(
+            UUID inboundEventId,
+            String cloudeventsId,
+            String source,
+            String type,
+            String subject,
+            String rawPayload,
+            RejectionReason reason,
+            String errorDetails,
+            String correlationId,
+            String facilityId) {
+
+        return DeadLetterEvent.builder()
                 .inboundEventId(inboundEventId)
                 .cloudeventsId(cloudeventsId)
                 .source(source)
@@ -55,10 +78,6 @@ public class DeadLetterService {
                 .correlationId(correlationId)
                 .facilityId(facilityId)
                 .build();
-
-        DeadLetterEvent saved = deadLetterEventRepository.save(dle);
-        log.error("Dead-lettered event: id={}, source={}, reason={}", cloudeventsId, source, reason);
-        return saved;
     }
 
     /**
@@ -71,12 +90,34 @@ public class DeadLetterService {
             String source,
             String type,
             String subject,
-            Map<String, Object> rawPayload,
+            String rawPayload,
             String errorDetails,
             String correlationId,
             String facilityId) {
 
-        DeadLetterEvent dle = DeadLetterEvent.builder()
+        DeadLetterEvent dle = buildKafkaFailure(inboundEventId, cloudeventsId, source, type, subject,
+                rawPayload, errorDetails, correlationId, facilityId);
+
+        DeadLetterEvent saved = deadLetterEventRepository.save(dle);
+        log.error("Dead-lettered event (Kafka failure): id={}, source={}", cloudeventsId, source);
+        return saved;
+    }
+
+    /**
+     * Build (without persisting) a dead-letter event for a Kafka publish failure.
+     */
+    public DeadLetterEvent buildKafkaFailure(
+            UUID inboundEventId,
+            String cloudeventsId,
+            String source,
+            String type,
+            String subject,
+            String rawPayload,
+            String errorDetails,
+            String correlationId,
+            String facilityId) {
+
+        return DeadLetterEvent.builder()
                 .inboundEventId(inboundEventId)
                 .cloudeventsId(cloudeventsId)
                 .source(source)
@@ -89,9 +130,16 @@ public class DeadLetterService {
                 .correlationId(correlationId)
                 .facilityId(facilityId)
                 .build();
+    }
 
-        DeadLetterEvent saved = deadLetterEventRepository.save(dle);
-        log.error("Dead-lettered event (Kafka failure): id={}, source={}", cloudeventsId, source);
+    /**
+     * Persist several dead-letter events in one transaction (batch ingestion).
+     */
+    @Transactional
+    public List<DeadLetterEvent> persistAll(List<DeadLetterEvent> deadLetters) {
+        List<DeadLetterEvent> saved = deadLetterEventRepository.saveAll(deadLetters);
+        saved.forEach(dle -> log.error("Dead-lettered event: id={}, source={}, reason={}",
+                dle.getCloudeventsId(), dle.getSource(), dle.getRejectionReason()));
         return saved;
     }
 
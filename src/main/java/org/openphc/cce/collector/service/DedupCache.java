@@ -0,0 +1,198 @@
+package org.openphc.cce.collector.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory set of recently stored (source, cloudeventsId) keys, consulted before the
+ * PostgreSQL dedup lookup. Only keys known to be in inbound_event are added, so a hit means
+ * "definitely a duplicate" and skips the query; a miss says nothing and falls through to the DB.
+ * <p>
+ * Keys are kept as 64-bit hashes ({@link DedupKey#hash}) in open-addressing tables (12 bytes
+ * per slot) split into independently locked segments. A probe window that has no free or expired slot evicts its
+ * oldest entry, so memory stays fixed at max-entries slots.
+ * <p>
+ * The bean caches CloudEvents ids; {@link ResendDetector} keeps one instance per secondary key
+ * (source event id, payload fingerprint). Metrics are tagged with the key they cache.
+ */
+@Component
+@ConditionalOnProperty(name = "cce.collector.dedup.cache.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class DedupCache {
+
+    private static final int SEGMENTS = 16;
+    private static final int PROBE_WINDOW = 16;
+    private static final long EMPTY = DedupKey.EMPTY_HASH;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final long origin;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public DedupCache(
+            @Value("${cce.collector.dedup.cache.max-entries:1048576}") int maxEntries,
+            @Value("${cce.collector.dedup.cache.ttl:24h}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this("id", maxEntries, ttl, meterRegistry, System::currentTimeMillis);
+    }
+
+    DedupCache(String key, int maxEntries, Duration ttl, MeterRegistry meterRegistry, LongSupplier clock) {
+        int slotsPerSegment = Math.max(PROBE_WINDOW,
+                Integer.highestOneBit(Math.max(1, maxEntries / SEGMENTS)));
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(slotsPerSegment);
+        }
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+
+        Tags tags = Tags.of("key", key);
+        FunctionCounter.builder("cce.collector.dedup.cache.hits", hits, LongAdder::sum)
+                .description("Dedup lookups answered as duplicate from memory")
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("cce.collector.dedup.cache.misses", misses, LongAdder::sum)
+                .description("Dedup lookups not found in memory")
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("cce.collector.dedup.cache.evictions", evictions, LongAdder::sum)
+                .description("Live keys dropped to make room")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("cce.collector.dedup.cache.size", this, DedupCache::size)
+                .description("Occupied slots, including expired keys not yet overwritten")
+                .tags(tags)
+                .register(meterRegistry);
+        log.info("Dedup cache for {} configured with {} slots, ttl={}", key, (long) slotsPerSegment * SEGMENTS, ttl);
+    }
+
+    /**
+     * @return true if the key was stored recently (within the TTL)
+     */
+    public boolean contains(String source, String key) {
+        long hash = DedupKey.hash(source, key);
+        boolean found = segmentOf(hash).contains(hash, now());
+        (found ? hits : misses).increment();
+        return found;
+    }
+
+    /**
+     * Record a key that is now stored.
+     */
+    public void add(String source, String key) {
+        add(DedupKey.hash(source, key));
+    }
+
+    /**
+     * Record a key by its {@link DedupKey#hash}, as shared by other replicas.
+     */
+    void add(long hash) {
+        int now = now();
+        int expiresAt = (int) Math.min(Integer.MAX_VALUE, now + Math.max(1, ttlMillis / 1000));
+        if (segmentOf(hash).add(hash, now, expiresAt)) {
+            evictions.increment();
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentOf(long hash) {
+        return segments[(int) (hash >>> 60) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Seconds since the cache was created — expiries are stored as int offsets from it.
+     */
+    private int now() {
+        return (int) ((clock.getAsLong() - origin) / 1000);
+    }
+
+    private static final class Segment {
+
+        private final long[] hashes;
+        private final int[] expiries;
+        private final int mask;
+        private int occupied;
+
+        Segment(int slots) {
+            this.hashes = new long[slots];
+            this.expiries = new int[slots];
+            this.mask = slots - 1;
+        }
+
+        synchronized boolean contains(long hash, int now) {
+            int start = (int) hash & mask;
+            for (int i = 0; i < PROBE_WINDOW; i++) {
+                int slot = (start + i) & mask;
+                long h = hashes[slot];
+                if (h == EMPTY) {
+                    return false;
+                }
+                if (h == hash) {
+                    return expiries[slot] > now;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return true if a live entry was evicted to make room
+         */
+        synchronized boolean add(long hash, int now, int expiresAt) {
+            int start = (int) hash & mask;
+            int free = -1;
+            int oldest = start;
+            for (int i = 0; i < PROBE_WINDOW; i++) {
+                int slot = (start + i) & mask;
+                long h = hashes[slot];
+                if (h == hash) {
+                    expiries[slot] = expiresAt;
+                    return false;
+                }
+                if (h == EMPTY) {
+                    if (free < 0) {
+                        free = slot;
+                        occupied++;
+                    }
+                    break;
+                }
+                if (free < 0 && expiries[slot] <= now) {
+                    free = slot;
+                }
+                if (expiries[slot] < expiries[oldest]) {
+                    oldest = slot;
+                }
+            }
+            boolean evicted = free < 0;
+            int slot = evicted ? oldest : free;
+            hashes[slot] = hash;
+            expiries[slot] = expiresAt;
+            return evicted;
+        }
+
+        synchronized int size() {
+            return occupied;
+        }
+    }
+}
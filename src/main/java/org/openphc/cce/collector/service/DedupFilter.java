@@ -0,0 +1,262 @@
+package org.openphc.cce.collector.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.openphc.cce.collector.domain.repository.InboundEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Rotating per-day Bloom filters over the (source, cloudeventsId) keys of inbound_event for the
+ * dedup lookback window. A negative answer means the key is not in the window, so
+ * {@link DeduplicationService} skips the query; only probable duplicates reach PostgreSQL.
+ * <p>
+ * The filters are rebuilt after startup by streaming inbound_event for the window. Until that
+ * finishes every key answers "maybe", so lookups fall through to the DB. Committed keys are added
+ * as they are written, and a day's filter is dropped once it falls out of the window. Negative
+ * answers cover only inserts this replica has seen, so enable the filter on a single replica, or
+ * together with {@link DedupKeyNotifier}, which feeds in other replicas' inserts.
+ */
+@Component
+@ConditionalOnProperty(name = "cce.collector.dedup.filter.enabled", havingValue = "true")
+@Slf4j
+public class DedupFilter {
+
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    private final InboundEventRepository inboundEventRepository;
+    private final int lookbackDays;
+    private final long bitsPerDay;
+    private final int hashesPerKey;
+    private final LongSupplier clock;
+    private final ConcurrentSkipListMap<Long, BloomFilter> days = new ConcurrentSkipListMap<>();
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder positives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private volatile boolean ready;
+
+    @Autowired
+    public DedupFilter(
+            InboundEventRepository inboundEventRepository,
+            @Value("${cce.collector.dedup.lookback-days:30}") int lookbackDays,
+            @Value("${cce.collector.dedup.filter.expected-per-day:1000000}") long expectedPerDay,
+            @Value("${cce.collector.dedup.filter.false-positive-rate:0.01}") double falsePositiveRate,
+            MeterRegistry meterRegistry) {
+        this(inboundEventRepository, lookbackDays, expectedPerDay, falsePositiveRate, meterRegistry,
+                System::currentTimeMillis);
+    }
+
+    DedupFilter(InboundEventRepository inboundEventRepository, int lookbackDays, long expectedPerDay,
+                double falsePositiveRate, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.inboundEventRepository = inboundEventRepository;
+        this.lookbackDays = lookbackDays;
+        // Every day's filter is checked, so split the configured rate across them to bound the
+        // combined rate: p_day = p / (lookbackDays + 1), m = -n ln p_day / (ln 2)^2 bits, k = (m / n) ln 2
+        double perDayRate = falsePositiveRate / (lookbackDays + 1);
+        this.bitsPerDay = Math.max(64, (long) Math.ceil(
+                -expectedPerDay * Math.log(perDayRate) / (Math.log(2) * Math.log(2))));
+        this.hashesPerKey = Math.max(1, (int) Math.round((double) bitsPerDay / expectedPerDay * Math.log(2)));
+        this.clock = clock;
+
+        FunctionCounter.builder("cce.collector.dedup.filter.negatives", negatives, LongAdder::sum)
+                .description("Dedup lookups answered as new by the filter, with no query")
+                .register(meterRegistry);
+        FunctionCounter.builder("cce.collector.dedup.filter.positives", positives, LongAdder::sum)
+                .description("Dedup lookups the filter passed to PostgreSQL as probable duplicates")
+                .register(meterRegistry);
+        FunctionCounter.builder("cce.collector.dedup.filter.false.positives", falsePositives, LongAdder::sum)
+                .description("Probable duplicates that PostgreSQL did not find")
+                .register(meterRegistry);
+        Gauge.builder("cce.collector.dedup.filter.bytes", this, DedupFilter::memoryBytes)
+                .description("Memory held by the per-day filters")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("cce.collector.dedup.filter.false.positive.rate", this, DedupFilter::falsePositiveRate)
+                .description("Estimated chance a new key is reported as a probable duplicate, across all days")
+                .register(meterRegistry);
+        Gauge.builder("cce.collector.dedup.filter.ready", this, f -> f.ready ? 1 : 0)
+                .description("1 once the filters have been rebuilt from inbound_event")
+                .register(meterRegistry);
+        log.info("Dedup filter configured: {} days x {} KiB, {} hashes per key, target false-positive rate {} combined",
+                lookbackDays + 1, bitsPerDay / 8 / 1024, hashesPerKey, falsePositiveRate);
+    }
+
+    /**
+     * @return false only if the key is definitely not in inbound_event within the window
+     */
+    public boolean mightContain(String source, String cloudeventsId) {
+        if (!ready) {
+            return true;
+        }
+        long hash = DedupKey.hash(source, cloudeventsId);
+        for (BloomFilter day : days.values()) {
+            if (day.mightContain(hash)) {
+                positives.increment();
+                return true;
+            }
+        }
+        negatives.increment();
+        return false;
+    }
+
+    /**
+     * Record a key written to inbound_event at {@code receivedAt}.
+     */
+    public void add(String source, String cloudeventsId, Instant receivedAt) {
+        add(DedupKey.hash(source, cloudeventsId), receivedAt);
+    }
+
+    /**
+     * Record a key by its {@link DedupKey#hash}, as shared by other replicas.
+     */
+    void add(long hash, Instant receivedAt) {
+        long day = Math.floorDiv(receivedAt.toEpochMilli(), MILLIS_PER_DAY);
+        if (day < oldestDay()) {
+            return;
+        }
+        days.computeIfAbsent(day, d -> new BloomFilter(bitsPerDay, hashesPerKey)).put(hash);
+    }
+
+    /**
+     * Count a "maybe" that the database lookup then ruled out.
+     */
+    public void recordFalsePositive() {
+        if (ready) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Rebuild the filters from inbound_event on a background thread, so startup is not held up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread.ofPlatform().name("dedup-filter-load").daemon().start(this::load);
+    }
+
+    void load() {
+        long start = System.nanoTime();
+        AtomicLong loaded = new AtomicLong();
+        OffsetDateTime since = Instant.ofEpochMilli(oldestDay() * MILLIS_PER_DAY).atOffset(ZoneOffset.UTC);
+        try {
+            inboundEventRepository.streamKeysSince(since, (source, cloudeventsId, receivedAt) -> {
+                add(source, cloudeventsId, receivedAt.toInstant());
+                loaded.incrementAndGet();
+            });
+            ready = true;
+            log.info("Dedup filter loaded {} keys since {} in {} ms", loaded.get(), since,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.error("Dedup filter load failed after {} keys; dedup lookups will keep querying PostgreSQL",
+                    loaded.get(), e);
+        }
+    }
+
+    /**
+     * Drop the filters for days that have left the lookback window.
+     */
+    @Scheduled(fixedDelayString = "${cce.collector.dedup.filter.rotate-interval-ms:3600000}")
+    public void rotate() {
+        days.headMap(oldestDay()).clear();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long memoryBytes() {
+        return days.size() * (bitsPerDay / 8);
+    }
+
+    /**
+     * A key is a false positive if any day's filter reports it: 1 - product of (1 - fpp per day),
+     * with each day's rate estimated from its fill ratio as (bits set / bits)^k.
+     */
+    public double falsePositiveRate() {
+        double allNegative = 1.0;
+        for (BloomFilter day : days.values()) {
+            allNegative *= 1.0 - Math.pow((double) day.bitsSet() / bitsPerDay, hashesPerKey);
+        }
+        return 1.0 - allNegative;
+    }
+
+    int dayCount() {
+        return days.size();
+    }
+
+    /**
+     * Oldest epoch day still kept. The lookback query reaches back lookbackDays from now, which
+     * starts partway through that day, so lookbackDays + 1 daily filters are kept.
+     */
+    private long oldestDay() {
+        return Math.floorDiv(clock.getAsLong(), MILLIS_PER_DAY) - lookbackDays;
+    }
+
+    /**
+     * Lock-free Bloom filter over pre-hashed 64-bit keys, using double hashing (h1 + i * h2)
+     * on the two halves of the hash to derive the k bit positions.
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+
+        BloomFilter(long bits, int hashes) {
+            this.words = new AtomicLongArray((int) ((bits + 63) >>> 6));
+            this.bits = bits;
+            this.hashes = hashes;
+        }
+
+        void put(long hash) {
+            long h1 = hash & 0xffffffffL;
+            long h2 = hash >>> 32;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = words.get(word);
+                while ((current & mask) == 0 && !words.weakCompareAndSetVolatile(word, current, current | mask)) {
+                    current = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(long hash) {
+            long h1 = hash & 0xffffffffL;
+            long h2 = hash >>> 32;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long bitsSet() {
+            long set = 0;
+            for (int i = 0; i < words.length(); i++) {
+                set += Long.bitCount(words.get(i));
+            }
+            return set;
+        }
+    }
+}
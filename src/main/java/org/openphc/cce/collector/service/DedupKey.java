@@ -0,0 +1,52 @@
+package org.openphc.cce.collector.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compound deduplication key — (source, cloudeventsId) as enforced by uq_inbound_event_id_source.
+ */
+public record DedupKey(String source, String cloudeventsId) {
+
+    static final long EMPTY_HASH = 0L;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * 64-bit FNV-1a over source, a separator and id, finished with the murmur3 fmix64 avalanche.
+     * Never returns zero, which hash tables may use to mark an empty slot.
+     */
+    public static long hash(String source, String cloudeventsId) {
+        long h = FNV_OFFSET;
+        h = fnv(h, source);
+        h = (h ^ 0xff) * FNV_PRIME;
+        h = fnv(h, cloudeventsId);
+        return finish(h);
+    }
+
+    /**
+     * The same hash over a byte sequence.
+     */
+    public static long hash(byte[] bytes) {
+        return finish(fnv(FNV_OFFSET, bytes));
+    }
+
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == EMPTY_HASH ? 1 : h;
+    }
+
+    private static long fnv(long h, String s) {
+        return s == null ? h : fnv(h, s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long fnv(long h, byte[] bytes) {
+        for (byte b : bytes) {
+            h = (h ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,269 @@
+package org.openphc.cce.collector.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares newly stored (source, cloudeventsId) keys between replicas over PostgreSQL
+ * LISTEN/NOTIFY, so each replica's {@link DedupCache} and {@link DedupFilter} also know the keys
+ * stored by its peers. Without it, a retry routed to another replica misses in memory.
+ * <p>
+ * Keys are sent as their 64-bit {@link DedupKey#hash}, batched every {@code flush-interval}, up to
+ * {@value #KEYS_PER_NOTIFY} per notification to stay under NOTIFY's 8000-byte payload limit.
+ * One thread holds a dedicated connection, outside the pool, that both listens and sends. While it
+ * is reconnecting, keys are queued up to {@code max-pending} and then dropped; received keys are
+ * lost. Both only cost a replica a cache miss — the inbound_event insert still decides duplicates.
+ */
+@Component
+@ConditionalOnProperty(name = "cce.collector.dedup.notify.enabled", havingValue = "true")
+@Slf4j
+public class DedupKeyNotifier implements SmartLifecycle {
+
+    // Base64 of 700 x 8 bytes is 7468 characters
+    static final int KEYS_PER_NOTIFY = 700;
+    private static final long RECONNECT_DELAY_MILLIS = 5_000;
+
+    private final DedupCache cache;
+    private final DedupFilter filter;
+    private final String channel;
+    private final long flushIntervalMillis;
+    private final int maxPending;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private long[] pending = new long[1024];
+    private int pendingCount;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean connected;
+    private volatile boolean running;
+    private Thread thread;
+
+    @Autowired
+    public DedupKeyNotifier(
+            ObjectProvider<DedupCache> cache,
+            ObjectProvider<DedupFilter> filter,
+            @Value("${cce.collector.dedup.notify.channel:cce_dedup_keys}") String channel,
+            @Value("${cce.collector.dedup.notify.flush-interval:100ms}") Duration flushInterval,
+            @Value("${cce.collector.dedup.notify.max-pending:100000}") int maxPending,
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username:}") String username,
+            @Value("${spring.datasource.password:}") String password,
+            MeterRegistry meterRegistry) {
+        this(cache.getIfAvailable(), filter.getIfAvailable(), channel, flushInterval, maxPending,
+                url, username, password, meterRegistry);
+    }
+
+    DedupKeyNotifier(DedupCache cache, DedupFilter filter, String channel, Duration flushInterval,
+                     int maxPending, String url, String username, String password, MeterRegistry meterRegistry) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            // LISTEN takes an identifier, not a bind parameter
+            throw new IllegalArgumentException("Invalid dedup notify channel: " + channel);
+        }
+        this.cache = cache;
+        this.filter = filter;
+        this.channel = channel;
+        this.flushIntervalMillis = Math.max(1, flushInterval.toMillis());
+        this.maxPending = maxPending;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+
+        FunctionCounter.builder("cce.collector.dedup.notify.sent", sent, LongAdder::sum)
+                .description("Stored keys sent to other replicas")
+                .register(meterRegistry);
+        FunctionCounter.builder("cce.collector.dedup.notify.received", received, LongAdder::sum)
+                .description("Keys received from other replicas")
+                .register(meterRegistry);
+        FunctionCounter.builder("cce.collector.dedup.notify.dropped", dropped, LongAdder::sum)
+                .description("Keys not sent because max-pending was reached")
+                .register(meterRegistry);
+        Gauge.builder("cce.collector.dedup.notify.connected", this, n -> n.connected ? 1 : 0)
+                .description("1 while the LISTEN connection is up")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a key that is now stored in inbound_event for the next notification.
+     */
+    public void publish(String source, String cloudeventsId) {
+        long hash = DedupKey.hash(source, cloudeventsId);
+        synchronized (this) {
+            if (pendingCount == maxPending) {
+                dropped.increment();
+                return;
+            }
+            if (pendingCount == pending.length) {
+                long[] grown = new long[Math.min(maxPending, pending.length * 2)];
+                System.arraycopy(pending, 0, grown, 0, pendingCount);
+                pending = grown;
+            }
+            pending[pendingCount++] = hash;
+        }
+    }
+
+    /**
+     * Take the queued keys as notification payloads.
+     */
+    List<String> drain() {
+        long[] hashes;
+        int count;
+        synchronized (this) {
+            if (pendingCount == 0) {
+                return List.of();
+            }
+            hashes = pending;
+            count = pendingCount;
+            pending = new long[Math.min(maxPending, Math.max(1024, count))];
+            pendingCount = 0;
+        }
+        List<String> payloads = new ArrayList<>(count / KEYS_PER_NOTIFY + 1);
+        for (int from = 0; from < count; from += KEYS_PER_NOTIFY) {
+            int to = Math.min(count, from + KEYS_PER_NOTIFY);
+            ByteBuffer bytes = ByteBuffer.allocate((to - from) * Long.BYTES);
+            for (int i = from; i < to; i++) {
+                bytes.putLong(hashes[i]);
+            }
+            payloads.add(Base64.getEncoder().encodeToString(bytes.array()));
+        }
+        return payloads;
+    }
+
+    /**
+     * Fold the keys of a peer's notification into the local cache and filter.
+     */
+    void receive(String payload) {
+        ByteBuffer bytes;
+        try {
+            bytes = ByteBuffer.wrap(Base64.getDecoder().decode(payload));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed dedup notification on channel {}", channel);
+            return;
+        }
+        Instant now = Instant.now();
+        while (bytes.remaining() >= Long.BYTES) {
+            long hash = bytes.getLong();
+            if (cache != null) {
+                cache.add(hash);
+            }
+            if (filter != null) {
+                filter.add(hash, now);
+            }
+            received.increment();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("dedup-notify").daemon().start(this::run);
+        log.info("Dedup key notifications started: channel={}, flushInterval={}ms", channel, flushIntervalMillis);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                connection.setAutoCommit(true);
+                try (Statement listen = connection.createStatement()) {
+                    listen.execute("LISTEN " + channel);
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                int ownPid = pg.getBackendPID();
+                connected = true;
+                log.info("Listening for dedup keys on channel {}", channel);
+                try (PreparedStatement notify = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                    while (running) {
+                        flush(notify);
+                        PGNotification[] notifications = pg.getNotifications((int) flushIntervalMillis);
+                        if (notifications == null) {
+                            continue;
+                        }
+                        for (PGNotification notification : notifications) {
+                            if (notification.getPID() != ownPid) {
+                                receive(notification.getParameter());
+                            }
+                        }
+                    }
+                    flush(notify);
+                }
+            } catch (SQLException e) {
+                connected = false;
+                log.warn("Dedup notify connection failed, reconnecting in {} ms: {}",
+                        RECONNECT_DELAY_MILLIS, e.getMessage());
+                sleepBeforeReconnect();
+            } finally {
+                connected = false;
+            }
+        }
+    }
+
+    private void flush(PreparedStatement notify) throws SQLException {
+        for (String payload : drain()) {
+            notify.setString(1, channel);
+            notify.setString(2, payload);
+            notify.execute();
+            sent.add(payload.length() * 3L / 4 / Long.BYTES);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        long deadline = System.currentTimeMillis() + RECONNECT_DELAY_MILLIS;
+        while (running && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
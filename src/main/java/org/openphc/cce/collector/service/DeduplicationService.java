@@ -2,44 +2,130 @@ package org.openphc.cce.collector.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.openphc.cce.collector.domain.repository.InboundEventRepository;
+import org.openphc.cce.collector.domain.repository.InboundEventRepository.EventKeyView;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
- * Deduplication via PostgreSQL.
- * Checks the inbound_event table for existing records within a configurable lookback window.
+ * Deduplication pre-check, run before an event is normalized and FHIR-validated.
+ * The authoritative check is the inbound_event insert itself (INSERT ... ON CONFLICT DO NOTHING,
+ * see {@link EventPersistenceService}); this only spares known duplicates the work before it.
+ * Keys in the in-memory {@link DedupCache} are duplicates. When the {@link DedupFilter} is
+ * enabled, keys it cannot rule out are looked up in inbound_event within the lookback window;
+ * otherwise no query is made and the insert decides.
  */
 @Service
 @Slf4j
 public class DeduplicationService {
 
     private final InboundEventRepository inboundEventRepository;
+    private final DedupCache cache;
+    private final DedupFilter filter;
+    private final DedupKeyNotifier notifier;
     private final int lookbackDays;
 
     public DeduplicationService(
             InboundEventRepository inboundEventRepository,
+            ObjectProvider<DedupCache> cache,
+            ObjectProvider<DedupFilter> filter,
+            ObjectProvider<DedupKeyNotifier> notifier,
             @Value("${cce.collector.dedup.lookback-days:30}") int lookbackDays) {
         this.inboundEventRepository = inboundEventRepository;
+        this.cache = cache.getIfAvailable();
+        this.filter = filter.getIfAvailable();
+        this.notifier = notifier.getIfAvailable();
         this.lookbackDays = lookbackDays;
         log.info("Deduplication configured with lookback window of {} days", lookbackDays);
     }
 
     /**
-     * Check if an event with the same (cloudeventsId, source) already exists
-     * within the configured lookback window.
+     * Check whether an event with the same (cloudeventsId, source) is already known to exist.
+     * A false answer is not final — the insert still detects a duplicate.
      *
-     * @return true if a duplicate is found in the database
+     * @return true if the key is cached, or the filter flags it and the lookback query finds it
      */
     public boolean isDuplicate(String source, String cloudeventsId) {
+        if (cache != null && cache.contains(source, cloudeventsId)) {
+            log.info("Duplicate detected in cache: source={}, id={}", source, cloudeventsId);
+            return true;
+        }
+        if (filter == null || !filter.mightContain(source, cloudeventsId)) {
+            return false;
+        }
         OffsetDateTime since = OffsetDateTime.now(ZoneOffset.UTC).minusDays(lookbackDays);
         boolean exists = inboundEventRepository.existsByCloudeventsIdAndSourceAndReceivedAtAfter(
                 cloudeventsId, source, since);
         if (exists) {
             log.info("Duplicate detected: source={}, id={}, lookbackDays={}", source, cloudeventsId, lookbackDays);
+            remember(source, cloudeventsId);
+        } else {
+            filter.recordFalsePositive();
         }
         return exists;
     }
+
+    /**
+     * Batch variant of {@link #isDuplicate} — resolves the keys the filter flags with a single query.
+     *
+     * @return the subset of keys known to exist already
+     */
+    public Set<DedupKey> findDuplicates(Set<DedupKey> keys) {
+        if (keys.isEmpty()) {
+            return Set.of();
+        }
+        Set<DedupKey> duplicates = new HashSet<>();
+        Set<DedupKey> unresolved = keys;
+        if (cache != null) {
+            unresolved = new HashSet<>();
+            for (DedupKey key : keys) {
+                (cache.contains(key.source(), key.cloudeventsId()) ? duplicates : unresolved).add(key);
+            }
+        }
+        unresolved = filter == null ? Set.of() : unresolved.stream()
+                .filter(key -> filter.mightContain(key.source(), key.cloudeventsId()))
+                .collect(Collectors.toSet());
+        if (!unresolved.isEmpty()) {
+            OffsetDateTime since = OffsetDateTime.now(ZoneOffset.UTC).minusDays(lookbackDays);
+            List<String> ids = unresolved.stream().map(DedupKey::cloudeventsId).distinct().toList();
+            for (EventKeyView row : inboundEventRepository.findByCloudeventsIdInAndReceivedAtAfter(ids, since)) {
+                DedupKey key = new DedupKey(row.getSource(), row.getCloudeventsId());
+                if (unresolved.contains(key)) {
+                    duplicates.add(key);
+                    remember(key.source(), key.cloudeventsId());
+                }
+            }
+            unresolved.stream().filter(key -> !duplicates.contains(key))
+                    .forEach(key -> filter.recordFalsePositive());
+        }
+        if (!duplicates.isEmpty()) {
+            log.info("Duplicates detected in batch: count={}, lookbackDays={}", duplicates.size(), lookbackDays);
+        }
+        return duplicates;
+    }
+
+    /**
+     * Record a key that is now stored in inbound_event, so repeats are answered from memory —
+     * on this replica and, with the {@link DedupKeyNotifier}, on its peers.
+     * Call only after the insert has committed.
+     */
+    public void remember(String source, String cloudeventsId) {
+        if (cache != null) {
+            cache.add(source, cloudeventsId);
+        }
+        if (filter != null) {
+            filter.add(source, cloudeventsId, Instant.now());
+        }
+        if (notifier != null) {
+            notifier.publish(source, cloudeventsId);
+        }
+    }
 }
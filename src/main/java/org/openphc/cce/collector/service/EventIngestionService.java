@@ -1,26 +1,48 @@
 package org.openphc.cce.collector.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.openphc.cce.collector.api.dto.*;
 import org.openphc.cce.collector.api.exception.CloudEventValidationException;
 import org.openphc.cce.collector.api.exception.FhirValidationException;
+import org.openphc.cce.collector.api.exception.PayloadTooLargeException;
+import org.openphc.cce.collector.api.exception.TooManyRequestsException;
+import org.openphc.cce.collector.concurrency.AdaptiveConcurrencyLimiter;
+import org.openphc.cce.collector.concurrency.StripedExecutor;
+import org.openphc.cce.collector.domain.model.DeadLetterEvent;
 import org.openphc.cce.collector.domain.model.EventLog;
 import org.openphc.cce.collector.domain.model.InboundEvent;
 import org.openphc.cce.collector.domain.model.enums.InboundStatus;
 import org.openphc.cce.collector.domain.model.enums.PublishStatus;
 import org.openphc.cce.collector.domain.model.enums.RejectionReason;
-import org.openphc.cce.collector.domain.repository.EventLogRepository;
-import org.openphc.cce.collector.domain.repository.InboundEventRepository;
+import org.openphc.cce.collector.service.EventPersistenceService.PendingEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Main orchestrator: validate → normalize → persist → deduplicate → publish.
@@ -30,18 +52,33 @@ import java.util.*;
 @Slf4j
 public class EventIngestionService {
 
+    private static final TypeReference<Map<String, Object>> DATA_TYPE = new TypeReference<>() {};
+
     private final CloudEventValidator cloudEventValidator;
     private final FhirPayloadValidator fhirPayloadValidator;
     private final EventNormalizer eventNormalizer;
     private final DeduplicationService deduplicationService;
+    private final ResendDetector resendDetector;
     private final EventPublisher eventPublisher;
     private final DeadLetterService deadLetterService;
-    private final InboundEventRepository inboundEventRepository;
-    private final EventLogRepository eventLogRepository;
+    private final EventPersistenceService eventPersistenceService;
+    private final GroupCommitWriter groupCommitWriter; // null when group commit is disabled
+    private final SourceRateLimiter sourceRateLimiter;
+    private final ObjectMapper objectMapper;
     private final String inboundTopic;
+    private final int maxBatchSize;
+    private final Executor ingestionExecutor; // null unless async ingestion is enabled
+    private final AdaptiveConcurrencyLimiter admissionLimiter; // null when admission control is disabled
+    private final IngestionStages stages; // null unless the staged pipeline is enabled
+    private final StripedExecutor subjectLanes; // null unless per-subject lanes are enabled
+    private final long retryAfterSeconds;
+    private final Duration commitTimeout;
 
     // Metrics
     private final Timer ingestionTimer;
+    private final Timer batchIngestionTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final AtomicInteger inFlight = new AtomicInteger();
     private final MeterRegistry meterRegistry;
 
     public EventIngestionService(
@@ -49,121 +86,516 @@ public class EventIngestionService {
             FhirPayloadValidator fhirPayloadValidator,
             EventNormalizer eventNormalizer,
             DeduplicationService deduplicationService,
+            ResendDetector resendDetector,
             EventPublisher eventPublisher,
             DeadLetterService deadLetterService,
-            InboundEventRepository inboundEventRepository,
-            EventLogRepository eventLogRepository,
+            EventPersistenceService eventPersistenceService,
+            ObjectProvider<GroupCommitWriter> groupCommitWriter,
+            SourceRateLimiter sourceRateLimiter,
+            ObjectMapper objectMapper,
             @Value("${cce.kafka.topics.inbound}") String inboundTopic,
+            @Value("${cce.collector.batch.max-size:500}") int maxBatchSize,
+            @Qualifier("ingestionExecutor") ObjectProvider<Executor> ingestionExecutor,
+            ObjectProvider<AdaptiveConcurrencyLimiter> admissionLimiter,
+            ObjectProvider<IngestionStages> stages,
+            ObjectProvider<StripedExecutor> subjectLanes,
+            @Value("${cce.collector.admission.retry-after-seconds:1}") long retryAfterSeconds,
+            @Value("${cce.collector.group-commit.commit-timeout:30s}") Duration commitTimeout,
             MeterRegistry meterRegistry) {
         this.cloudEventValidator = cloudEventValidator;
         this.fhirPayloadValidator = fhirPayloadValidator;
         this.eventNormalizer = eventNormalizer;
         this.deduplicationService = deduplicationService;
+        this.resendDetector = resendDetector;
         this.eventPublisher = eventPublisher;
         this.deadLetterService = deadLetterService;
-        this.inboundEventRepository = inboundEventRepository;
-        this.eventLogRepository = eventLogRepository;
+        this.eventPersistenceService = eventPersistenceService;
+        this.groupCommitWriter = groupCommitWriter.getIfAvailable();
+        this.sourceRateLimiter = sourceRateLimiter;
+        this.objectMapper = objectMapper;
         this.inboundTopic = inboundTopic;
+        this.maxBatchSize = maxBatchSize;
+        this.ingestionExecutor = ingestionExecutor.getIfAvailable();
+        this.admissionLimiter = admissionLimiter.getIfAvailable();
+        this.stages = stages.getIfAvailable();
+        this.subjectLanes = subjectLanes.getIfAvailable();
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.commitTimeout = commitTimeout;
         this.meterRegistry = meterRegistry;
         this.ingestionTimer = Timer.builder("cce.collector.ingestion.duration")
                 .description("End-to-end event ingestion latency")
                 .register(meterRegistry);
+        this.batchIngestionTimer = Timer.builder("cce.collector.ingestion.batch.duration")
+                .description("End-to-end batch ingestion latency")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("cce.collector.ingestion.batch.size")
+                .description("Number of events per ingestion batch")
+                .register(meterRegistry);
+        Gauge.builder("cce.collector.ingestion.inflight", inFlight, AtomicInteger::get)
+                .description("Asynchronous ingestions accepted but not yet completed")
+                .register(meterRegistry);
     }
 
     /**
      * Ingest a single clinical event — the primary entry point.
      */
     public EventIngestionResponse ingest(EventIngestionRequest request) {
-        return ingestionTimer.record(() -> doIngest(request));
+        throttle(request);
+        long admittedAt = admit();
+        try {
+            return ingestionTimer.record(() -> inLane(request, () -> doIngestSingle(request)));
+        } finally {
+            release(admittedAt);
+        }
+    }
+
+    /**
+     * Ingest an event received in CloudEvents binary content mode — the envelope carries the
+     * ce-* header attributes and no data. Envelope validation and dedup run on the headers alone;
+     * the body is only read and parsed once the event is known to be well-formed and new.
+     */
+    public EventIngestionResponse ingestBinary(EventIngestionRequest envelope, InputStream body) {
+        throttle(envelope);
+        long admittedAt = admit();
+        try {
+            return ingestionTimer.record(() -> inLane(envelope, () -> doIngestBinary(envelope, body)));
+        } finally {
+            release(admittedAt);
+        }
+    }
+
+    /**
+     * Ingest a batch of clinical events with one dedup lookup, one transaction and one Kafka flush.
+     * Individual failures do not fail the batch — each item gets its own result, in request order.
+     */
+    public List<EventIngestionResponse> ingestBatch(List<EventIngestionRequest> requests) {
+        return ingestBatch(requests, true);
+    }
+
+    /**
+     * Variant of {@link #ingestBatch} for a caller that has already taken each event's token from
+     * the per-source rate limiter, waiting where needed (the NDJSON stream), so no item is
+     * rejected as rate limited.
+     */
+    public List<EventIngestionResponse> ingestPacedBatch(List<EventIngestionRequest> requests) {
+        return ingestBatch(requests, false);
+    }
+
+    private List<EventIngestionResponse> ingestBatch(List<EventIngestionRequest> requests, boolean rateLimited) {
+        if (requests.isEmpty()) {
+            throw new CloudEventValidationException("Batch must contain at least one event", "events");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new PayloadTooLargeException(
+                    "Batch of " + requests.size() + " events exceeds max batch size of " + maxBatchSize);
+        }
+        batchSizeSummary.record(requests.size());
+        admit();
+        try {
+            return batchIngestionTimer.record(() -> doIngestBatch(requests, rateLimited));
+        } finally {
+            // Batch latency is not comparable to single-event latency, so it is not a limit sample
+            if (admissionLimiter != null) {
+                admissionLimiter.release();
+            }
+        }
+    }
+
+    /**
+     * Ingest a batch pulled from a Kafka intake topic. The consumer only polls what it can
+     * process, so neither admission control nor per-source rate limiting applies — shedding
+     * here would drop records whose offsets are about to be committed. Callers keep batches
+     * within the max batch size.
+     */
+    public List<EventIngestionResponse> ingestPolledBatch(List<EventIngestionRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        batchSizeSummary.record(requests.size());
+        return batchIngestionTimer.record(() -> doIngestBatch(requests, false));
+    }
+
+    /**
+     * Asynchronous variant of {@link #ingest} — the database steps run on the ingestion executor
+     * and the Kafka publish completes on the producer callback, so no thread is parked while the
+     * broker acknowledges. The calling (request) thread returns immediately. With the staged
+     * pipeline enabled, each step runs on its own stage instead; with subject lanes enabled,
+     * the whole ingestion runs on the subject's lane.
+     */
+    public CompletableFuture<EventIngestionResponse> ingestAsync(EventIngestionRequest request) {
+        throttle(request);
+        long admittedAt = admit();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        inFlight.incrementAndGet();
+
+        CompletableFuture<EventIngestionResponse> future;
+        try {
+            if (subjectLanes != null) {
+                future = subjectLanes.submit(laneKey(request), () -> doIngestSingle(request));
+            } else if (stages != null) {
+                future = ingestStaged(request);
+            } else {
+                future = CompletableFuture
+                        .supplyAsync(() -> prepare(request, OffsetDateTime.now(ZoneOffset.UTC)), ingestionExecutor)
+                        .thenCompose(prepared -> prepared.duplicate() != null
+                                ? CompletableFuture.completedFuture(prepared.duplicate())
+                                : eventPublisher.publishAsync(prepared.eventLog(), ingestionExecutor)
+                                        .handleAsync((message, ex) -> {
+                                            if (ex != null) {
+                                                handlePublishFailure(prepared, unwrap(ex));
+                                            }
+                                            return accept(prepared);
+                                        }, ingestionExecutor));
+            }
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            release(admittedAt);
+            throw e;
+        }
+
+        return future.whenComplete((response, ex) -> {
+            inFlight.decrementAndGet();
+            sample.stop(ingestionTimer);
+            release(admittedAt);
+        });
+    }
+
+    /**
+     * Per-source rate limit — checked before any validation so a flooding source costs
+     * one CAS per event and nothing else.
+     */
+    private void throttle(EventIngestionRequest request) {
+        long waitNanos = sourceRateLimiter.tryAcquire(request.getSource(), request.getFacilityid());
+        if (waitNanos > 0) {
+            recordMetric(request.getSource(), "rate_limited");
+            throw new TooManyRequestsException(
+                    "Rate limit exceeded for source " + request.getSource() + ". Retry later.",
+                    toRetryAfterSeconds(waitNanos));
+        }
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Admission control — reject immediately with 429 when the adaptive concurrency limit is reached,
+     * instead of letting requests queue on a degraded database or broker.
+     *
+     * @return admission timestamp (nanos) to pass to {@link #release}
+     */
+    private long admit() {
+        if (admissionLimiter != null && !admissionLimiter.tryAcquire()) {
+            throw new TooManyRequestsException(
+                    "Ingestion concurrency limit of " + admissionLimiter.getLimit() + " reached. Retry later.",
+                    retryAfterSeconds);
+        }
+        return System.nanoTime();
+    }
+
+    private void release(long admittedAt) {
+        if (admissionLimiter != null) {
+            admissionLimiter.release(System.nanoTime() - admittedAt);
+        }
+    }
+
+    /**
+     * Run a single-event ingestion on its subject's lane, when lanes are enabled, so events for
+     * one patient are processed — and published — one at a time, in arrival order.
+     */
+    private EventIngestionResponse inLane(EventIngestionRequest request, Supplier<EventIngestionResponse> task) {
+        return subjectLanes == null ? task.get() : await(subjectLanes.submit(laneKey(request), task));
+    }
+
+    /**
+     * Lane key — the subject (patient UPID); events without one are spread by id instead.
+     */
+    private static String laneKey(EventIngestionRequest request) {
+        return request.getSubject() != null ? request.getSubject() : request.getId();
+    }
+
+    private EventIngestionResponse doIngestSingle(EventIngestionRequest request) {
+        return stages != null ? await(ingestStaged(request)) : doIngest(request);
     }
 
     /**
      * Core ingestion logic for a single event.
      */
     private EventIngestionResponse doIngest(EventIngestionRequest request) {
+        return complete(prepare(request, OffsetDateTime.now(ZoneOffset.UTC)));
+    }
+
+    /**
+     * Staged variant of steps 2–10 — each step runs on its own bounded pipeline stage, so the
+     * stage that saturates shows up in its queue metrics and can be sized independently.
+     */
+    private CompletableFuture<EventIngestionResponse> ingestStaged(EventIngestionRequest request) {
         OffsetDateTime receivedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        return stages.validate().submit(() -> {
+                    try {
+                        cloudEventValidator.validate(request);
+                    } catch (CloudEventValidationException e) {
+                        rejectEnvelope(request, e);
+                    }
+                    return request;
+                })
+                .thenCompose(validated -> stages.dedup().submit(
+                        () -> deduplicationService.isDuplicate(request.getSource(), request.getId())
+                                || resendDetector.isResend(request)))
+                .thenCompose(duplicate -> {
+                    if (duplicate) {
+                        recordMetric(request.getSource(), "duplicate");
+                        return CompletableFuture.completedFuture(buildDuplicateResponse(request, receivedAt));
+                    }
+                    return stages.fhir().submit(() -> check(request, receivedAt))
+                            .thenCompose(checked -> stages.persist().submit(() -> store(checked)))
+                            .thenCompose(this::publishStaged);
+                });
+    }
 
+    private CompletableFuture<EventIngestionResponse> publishStaged(PreparedEvent prepared) {
+        if (prepared.duplicate() != null) {
+            return CompletableFuture.completedFuture(prepared.duplicate());
+        }
+        try {
+            return stages.publish().submit(() -> complete(prepared));
+        } catch (RejectedExecutionException e) {
+            // The event is already in the outbox; the scheduled retry publishes it
+            log.warn("Publish stage saturated, leaving event id={} to the outbox retry", prepared.request().getId());
+            return CompletableFuture.completedFuture(accept(prepared));
+        }
+    }
+
+    /**
+     * Core ingestion logic for a binary-mode event — steps 2–3 run before the body is parsed.
+     */
+    private EventIngestionResponse doIngestBinary(EventIngestionRequest envelope, InputStream body) {
+        OffsetDateTime receivedAt = OffsetDateTime.now(ZoneOffset.UTC);
+
+        // Step 2: CloudEvents envelope validation (ce-* headers only)
+        try {
+            cloudEventValidator.validateAttributes(envelope);
+        } catch (CloudEventValidationException e) {
+            rejectEnvelope(envelope, e);
+        }
+
+        // Step 3: Deduplication check — a retried event is answered without reading its body
+        if (deduplicationService.isDuplicate(envelope.getSource(), envelope.getId())) {
+            recordMetric(envelope.getSource(), "duplicate");
+            return buildDuplicateResponse(envelope, receivedAt);
+        }
+
+        try {
+            envelope.setData(objectMapper.readValue(body, DATA_TYPE));
+        } catch (JsonProcessingException e) {
+            rejectEnvelope(envelope, new CloudEventValidationException(
+                    "Event data is not a valid JSON object: " + e.getOriginalMessage(), "data"));
+        } catch (IOException e) {
+            recordMetric(envelope.getSource(), "rejected");
+            throw new CloudEventValidationException("Event body could not be read: " + e.getMessage(), "data");
+        }
+        try {
+            cloudEventValidator.validate(envelope);
+        } catch (CloudEventValidationException e) {
+            rejectEnvelope(envelope, e);
+        }
+
+        // Resend check on the secondary keys, which the payload fingerprint needs the body for
+        if (resendDetector.isResend(envelope)) {
+            recordMetric(envelope.getSource(), "duplicate");
+            return buildDuplicateResponse(envelope, receivedAt);
+        }
+
+        return complete(persist(envelope, receivedAt));
+    }
+
+    /**
+     * Steps 9–10 for a prepared event: publish to Kafka and build the response.
+     */
+    private EventIngestionResponse complete(PreparedEvent prepared) {
+        if (prepared.duplicate() != null) {
+            return prepared.duplicate();
+        }
+
+        // Step 9: Publish to Kafka
+        try {
+            eventPublisher.publish(prepared.eventLog());
+        } catch (Exception e) {
+            handlePublishFailure(prepared, e);
+        }
+
+        // Step 10: Return HTTP response
+        return accept(prepared);
+    }
+
+    /**
+     * Steps 2–8 of the ingestion flow: everything up to and including the event_log outbox write.
+     */
+    private PreparedEvent prepare(EventIngestionRequest request, OffsetDateTime receivedAt) {
         // Step 2: CloudEvents envelope validation
         try {
             cloudEventValidator.validate(request);
         } catch (CloudEventValidationException e) {
-            recordMetric(request.getSource(), "rejected");
-            deadLetterService.persistValidationFailure(
-                    null, request.getId(), request.getSource(), request.getType(),
-                    request.getSubject(), request.toRawPayload(),
-                    RejectionReason.INVALID_ENVELOPE, e.getMessage(),
-                    request.getCorrelationid(), request.getFacilityid());
-            throw e;
+            rejectEnvelope(request, e);
         }
 
-        // Step 3: Deduplication check (before DB persist to avoid constraint violations)
-        if (deduplicationService.isDuplicate(request.getSource(), request.getId())) {
+        // Step 3: Deduplication pre-check — known duplicates and resends under a new id skip
+        // normalization and FHIR validation; the inbound_event insert decides the rest
+        if (deduplicationService.isDuplicate(request.getSource(), request.getId())
+                || resendDetector.isResend(request)) {
             recordMetric(request.getSource(), "duplicate");
-            return buildDuplicateResponse(request, receivedAt);
+            return new PreparedEvent(request, null, null, receivedAt, buildDuplicateResponse(request, receivedAt));
         }
 
-        // Step 4: Persist raw inbound event
-        InboundEvent inboundEvent = persistInboundEvent(request, receivedAt);
+        return persist(request, receivedAt);
+    }
+
+    /**
+     * Steps 4–8 for a validated, non-duplicate event. Normalization and FHIR validation run
+     * before any write: an accepted event is written once, with its final status, as inbound_event +
+     * event_log in one transaction, and a rejected event costs a single dead_letter_event insert.
+     */
+    private PreparedEvent persist(EventIngestionRequest request, OffsetDateTime receivedAt) {
+        return store(check(request, receivedAt));
+    }
 
-        // Step 5: Normalization
+    /**
+     * Steps 4–5: normalize and FHIR-validate, and build the rows to write — no database access.
+     */
+    private CheckedEvent check(EventIngestionRequest request, OffsetDateTime receivedAt) {
+        // Step 4: Normalization
         String normalizedType = eventNormalizer.normalizeEventType(request.getType());
         String correlationId = eventNormalizer.ensureCorrelationId(request.getCorrelationid());
         OffsetDateTime eventTime = eventNormalizer.ensureEventTime(request.getTime());
 
-        // Step 6: FHIR payload validation
+        // Step 5: FHIR payload validation
         try {
             fhirPayloadValidator.validate(request);
         } catch (FhirValidationException e) {
-            inboundEvent.setStatus(InboundStatus.REJECTED);
-            inboundEvent.setRejectionReason(RejectionReason.INVALID_FHIR.name());
-            inboundEventRepository.save(inboundEvent);
             recordMetric(request.getSource(), "rejected");
-            deadLetterService.persistValidationFailure(
-                    inboundEvent.getId(), request.getId(), request.getSource(), request.getType(),
-                    request.getSubject(), request.toRawPayload(),
-                    RejectionReason.INVALID_FHIR, String.join("; ", e.getErrors()),
-                    correlationId, request.getFacilityid());
-            throw e;
+            return new CheckedEvent(request, receivedAt, new PendingEvent(null, null,
+                    deadLetterService.buildValidationFailure(
+                            null, request.getId(), request.getSource(), request.getType(),
+                            request.getSubject(), request.rawPayloadJson(objectMapper),
+                            RejectionReason.INVALID_FHIR, String.join("; ", e.getErrors()),
+                            correlationId, request.getFacilityid())), e);
         }
 
-        // Step 7: Update inbound event status to accepted
-        inboundEvent.setStatus(InboundStatus.ACCEPTED);
-        inboundEventRepository.save(inboundEvent);
+        InboundEvent inboundEvent = buildInboundEvent(request, InboundStatus.ACCEPTED, receivedAt);
+        EventLog eventLog = buildEventLog(request, normalizedType, correlationId, eventTime, receivedAt);
+        return new CheckedEvent(request, receivedAt, new PendingEvent(inboundEvent, eventLog, null), null);
+    }
 
-        // Step 8: Persist normalized event to event_log (outbox)
-        EventLog eventLog = persistEventLog(request, inboundEvent, normalizedType,
-                correlationId, eventTime, receivedAt);
+    /**
+     * Steps 6–8: write the checked event's rows — for an accepted event the inbound event and
+     * event_log outbox record, two inserts in one commit; for a reject its dead letter — then
+     * rethrow a FHIR rejection. An accepted event whose inbound_event insert hits an existing row
+     * writes nothing and is answered as a duplicate.
+     */
+    private PreparedEvent store(CheckedEvent checked) {
+        boolean written = write(checked.rows());
+        if (checked.rejection() != null) {
+            throw checked.rejection();
+        }
+        EventIngestionRequest request = checked.request();
+        deduplicationService.remember(request.getSource(), request.getId());
+        if (!written) {
+            log.info("Duplicate detected on insert: source={}, id={}", request.getSource(), request.getId());
+            recordMetric(request.getSource(), "duplicate");
+            return new PreparedEvent(request, null, null, checked.receivedAt(),
+                    buildDuplicateResponse(request, checked.receivedAt()));
+        }
+        resendDetector.remember(request);
+        fhirPayloadValidator.validateDeferred(request, checked.rows().inboundEvent().getId());
+        return new PreparedEvent(request, checked.rows().inboundEvent(), checked.rows().eventLog(),
+                checked.receivedAt(), null);
+    }
 
-        // Step 9: Publish to Kafka
+    /**
+     * Write one event's rows — through the group-commit writer when enabled, so concurrent
+     * single-event ingestions share a transaction, otherwise in a transaction of its own.
+     *
+     * @return false if the event was a duplicate and nothing was written
+     */
+    private boolean write(PendingEvent event) {
+        if (groupCommitWriter == null) {
+            return eventPersistenceService.persistAll(List.of(event)).isEmpty();
+        }
+        CompletableFuture<Boolean> committed;
         try {
-            eventPublisher.publish(eventLog);
-        } catch (Exception e) {
-            log.error("Kafka publish failed for event id={}: {}", request.getId(), e.getMessage());
-            deadLetterService.persistKafkaFailure(
-                    inboundEvent.getId(), request.getId(), request.getSource(),
-                    normalizedType, request.getSubject(), request.toRawPayload(),
-                    e.getMessage(), correlationId, request.getFacilityid());
-            // Event stays in event_log with publish_status=PENDING/FAILED for retry
+            committed = groupCommitWriter.submit(event);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Ingestion write queue is full. Retry later.", retryAfterSeconds);
+        }
+        // Bounded, so a stuck writer cannot hold request threads and admission permits forever;
+        // a retry is safe, since the inbound_event insert decides duplicates
+        try {
+            return committed.get(commitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TooManyRequestsException("Ingestion write did not commit in time. Retry later.", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the ingestion write to commit", e);
         }
+    }
 
-        recordMetric(request.getSource(), "accepted");
+    /**
+     * Wait for a future, rethrowing its failure as thrown rather than wrapped.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 
-        // Step 10: Return HTTP response
+    private void rejectEnvelope(EventIngestionRequest request, CloudEventValidationException e) {
+        recordMetric(request.getSource(), "rejected");
+        deadLetterService.persistValidationFailure(
+                null, request.getId(), request.getSource(), request.getType(),
+                request.getSubject(), request.rawPayloadJson(objectMapper),
+                RejectionReason.INVALID_ENVELOPE, e.getMessage(),
+                request.getCorrelationid(), request.getFacilityid());
+        throw e;
+    }
+
+    private void handlePublishFailure(PreparedEvent prepared, Throwable e) {
+        EventIngestionRequest request = prepared.request();
+        EventLog eventLog = prepared.eventLog();
+        log.error("Kafka publish failed for event id={}: {}", request.getId(), e.getMessage());
+        deadLetterService.persistKafkaFailure(
+                prepared.inboundEvent().getId(), request.getId(), request.getSource(),
+                eventLog.getType(), request.getSubject(), request.rawPayloadJson(objectMapper),
+                e.getMessage(), eventLog.getCorrelationId(), request.getFacilityid());
+        // Event stays in event_log with publish_status=PENDING/FAILED for retry
+    }
+
+    private EventIngestionResponse accept(PreparedEvent prepared) {
+        recordMetric(prepared.request().getSource(), "accepted");
         return EventIngestionResponse.builder()
-                .eventId(request.getId())
+                .eventId(prepared.request().getId())
                 .status("accepted")
-                .correlationId(correlationId)
+                .correlationId(prepared.eventLog().getCorrelationId())
                 .publishedTopic(inboundTopic)
-                .receivedAt(receivedAt)
+                .receivedAt(prepared.receivedAt())
                 .build();
     }
 
-    /**
-     * Persist the raw inbound event (audit trail, first write).
-     */
-    @Transactional
-    protected InboundEvent persistInboundEvent(EventIngestionRequest request, OffsetDateTime receivedAt) {
-        InboundEvent inboundEvent = InboundEvent.builder()
+    private InboundEvent buildInboundEvent(EventIngestionRequest request, InboundStatus status,
+                                           OffsetDateTime receivedAt) {
+        return InboundEvent.builder()
                 .cloudeventsId(request.getId())
                 .source(request.getSource())
                 .type(request.getType())
@@ -175,26 +607,19 @@ public class EventIngestionService {
                 .facilityId(request.getFacilityid())
                 .correlationId(request.getCorrelationid())
                 .sourceEventId(request.getSourceeventid())
-                .rawPayload(request.toRawPayload())
-                .status(InboundStatus.RECEIVED)
+                .rawPayload(request.rawPayloadJson(objectMapper))
+                .status(status)
                 .receivedAt(receivedAt)
                 .build();
-
-        return inboundEventRepository.save(inboundEvent);
     }
 
-    /**
-     * Persist the normalized event to event_log (outbox table).
-     */
-    @Transactional
-    protected EventLog persistEventLog(EventIngestionRequest request, InboundEvent inboundEvent,
-                                        String normalizedType, String correlationId,
-                                        OffsetDateTime eventTime, OffsetDateTime receivedAt) {
-        EventLog eventLog = EventLog.builder()
-                .inboundEventId(inboundEvent.getId())
+    private EventLog buildEventLog(EventIngestionRequest request, String normalizedType, String correlationId,
+                                   OffsetDateTime eventTime, OffsetDateTime receivedAt) {
+        return EventLog.builder()
                 .cloudeventsId(request.getId())
                 .source(request.getSource())
                 .sourceEventId(request.getSourceeventid())
+                .payloadFingerprint(resendDetector.fingerprint(request))
                 .subject(request.getSubject())
                 .type(normalizedType)
                 .eventTime(eventTime)
@@ -209,8 +634,159 @@ public class EventIngestionService {
                 .facilityId(request.getFacilityid())
                 .publishStatus(PublishStatus.PENDING)
                 .build();
+    }
+
+    /**
+     * Core ingestion logic for a batch — same steps as {@link #doIngest}, but each step
+     * runs once over the whole batch instead of once per event.
+     */
+    private List<EventIngestionResponse> doIngestBatch(List<EventIngestionRequest> requests, boolean rateLimited) {
+        OffsetDateTime receivedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        EventIngestionResponse[] results = new EventIngestionResponse[requests.size()];
+        List<PendingEvent> pending = new ArrayList<>(requests.size());
+
+        // Step 2: CloudEvents envelope validation (after the per-source rate limit)
+        Set<DedupKey> keys = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            EventIngestionRequest request = requests.get(i);
+            long waitNanos = rateLimited
+                    ? sourceRateLimiter.tryAcquire(request.getSource(), request.getFacilityid()) : 0;
+            if (waitNanos > 0) {
+                recordMetric(request.getSource(), "rate_limited");
+                results[i] = buildRejectedResponse(request, RejectionReason.RATE_LIMITED,
+                        "Retry after " + toRetryAfterSeconds(waitNanos) + "s", receivedAt);
+                continue;
+            }
+            try {
+                cloudEventValidator.validate(request);
+                keys.add(new DedupKey(request.getSource(), request.getId()));
+            } catch (CloudEventValidationException e) {
+                recordMetric(request.getSource(), "rejected");
+                pending.add(new PendingEvent(null, null, deadLetterService.buildValidationFailure(
+                        null, request.getId(), request.getSource(), request.getType(),
+                        request.getSubject(), request.rawPayloadJson(objectMapper),
+                        RejectionReason.INVALID_ENVELOPE, e.getMessage(),
+                        request.getCorrelationid(), request.getFacilityid())));
+                results[i] = buildRejectedResponse(request, RejectionReason.INVALID_ENVELOPE, e.getMessage(), receivedAt);
+            }
+        }
+
+        // Step 3: Deduplication pre-check for the whole batch, plus repeats within the batch and
+        // resends under a new id; the inbound_event insert decides the rest
+        Set<DedupKey> seen = new HashSet<>(deduplicationService.findDuplicates(keys));
+        List<EventIngestionRequest> validated = new ArrayList<>(keys.size());
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] == null) {
+                validated.add(requests.get(i));
+            }
+        }
+        Set<EventIngestionRequest> resends = resendDetector.findResends(validated);
+
+        List<PendingEvent> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            EventIngestionRequest request = requests.get(i);
+            if (!seen.add(new DedupKey(request.getSource(), request.getId())) || resends.contains(request)) {
+                recordMetric(request.getSource(), "duplicate");
+                results[i] = buildDuplicateResponse(request, receivedAt);
+                continue;
+            }
+
+            // Step 5: Normalization
+            String normalizedType = eventNormalizer.normalizeEventType(request.getType());
+            String correlationId = eventNormalizer.ensureCorrelationId(request.getCorrelationid());
+            OffsetDateTime eventTime = eventNormalizer.ensureEventTime(request.getTime());
 
-        return eventLogRepository.save(eventLog);
+            // Step 6: FHIR payload validation — a reject is only dead-lettered, an accept written once
+            try {
+                fhirPayloadValidator.validate(request);
+            } catch (FhirValidationException e) {
+                String errors = String.join("; ", e.getErrors());
+                recordMetric(request.getSource(), "rejected");
+                pending.add(new PendingEvent(null, null, deadLetterService.buildValidationFailure(
+                        null, request.getId(), request.getSource(), request.getType(),
+                        request.getSubject(), request.rawPayloadJson(objectMapper),
+                        RejectionReason.INVALID_FHIR, errors,
+                        correlationId, request.getFacilityid())));
+                results[i] = buildRejectedResponse(request, RejectionReason.INVALID_FHIR, errors, receivedAt);
+                continue;
+            }
+
+            // Steps 7–8: accepted inbound event + event_log outbox record
+            EventLog eventLog = buildEventLog(request, normalizedType, correlationId, eventTime, receivedAt);
+            PendingEvent rows = new PendingEvent(buildInboundEvent(request, InboundStatus.ACCEPTED, receivedAt),
+                    eventLog, null);
+            pending.add(rows);
+            accepted.add(rows);
+            acceptedIndexes.add(i);
+            results[i] = EventIngestionResponse.builder()
+                    .eventId(request.getId())
+                    .status("accepted")
+                    .correlationId(correlationId)
+                    .publishedTopic(inboundTopic)
+                    .receivedAt(receivedAt)
+                    .build();
+        }
+
+        // Single transaction for all inbound_event, event_log and dead_letter_event rows
+        Set<PendingEvent> duplicates = eventPersistenceService.persistAll(pending);
+        List<EventLog> eventLogs = new ArrayList<>(accepted.size());
+        List<Integer> eventLogIndexes = new ArrayList<>(accepted.size());
+        for (int j = 0; j < accepted.size(); j++) {
+            int index = acceptedIndexes.get(j);
+            EventIngestionRequest request = requests.get(index);
+            deduplicationService.remember(request.getSource(), request.getId());
+            if (duplicates.contains(accepted.get(j))) {
+                recordMetric(request.getSource(), "duplicate");
+                results[index] = buildDuplicateResponse(request, receivedAt);
+                continue;
+            }
+            resendDetector.remember(request);
+            fhirPayloadValidator.validateDeferred(request, accepted.get(j).inboundEvent().getId());
+            eventLogs.add(accepted.get(j).eventLog());
+            eventLogIndexes.add(index);
+        }
+
+        // Step 9: Publish to Kafka — one flush for the whole batch
+        Map<EventLog, String> failed = eventPublisher.publishAll(eventLogs);
+        if (!failed.isEmpty()) {
+            List<DeadLetterEvent> deadLetters = new ArrayList<>(failed.size());
+            for (int j = 0; j < eventLogs.size(); j++) {
+                EventLog eventLog = eventLogs.get(j);
+                String error = failed.get(eventLog);
+                if (error == null) {
+                    continue;
+                }
+                EventIngestionRequest request = requests.get(eventLogIndexes.get(j));
+                log.error("Kafka publish failed for event id={}: {}", request.getId(), error);
+                deadLetters.add(deadLetterService.buildKafkaFailure(
+                        eventLog.getInboundEventId(), request.getId(), request.getSource(),
+                        eventLog.getType(), request.getSubject(), request.rawPayloadJson(objectMapper),
+                        error, eventLog.getCorrelationId(), request.getFacilityid()));
+            }
+            deadLetterService.persistAll(deadLetters);
+            // Events stay in event_log with publish_status=FAILED for retry
+        }
+
+        for (int index : eventLogIndexes) {
+            recordMetric(requests.get(index).getSource(), "accepted");
+        }
+        return Arrays.asList(results);
+    }
+
+    private EventIngestionResponse buildRejectedResponse(EventIngestionRequest request, RejectionReason reason,
+                                                         String details, OffsetDateTime receivedAt) {
+        return EventIngestionResponse.builder()
+                .eventId(request.getId())
+                .status("rejected")
+                .correlationId(request.getCorrelationid())
+                .receivedAt(receivedAt)
+                .reason(reason.name())
+                .details(details)
+                .build();
     }
 
     private EventIngestionResponse buildDuplicateResponse(EventIngestionRequest request, OffsetDateTime receivedAt) {
@@ -222,6 +798,10 @@ public class EventIngestionService {
                 .build();
     }
 
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
     private UUID parseUuid(String value) {
         if (value == null || value.isBlank()) {
             return null;
@@ -241,4 +821,25 @@ public class EventIngestionService {
                 .register(meterRegistry)
                 .increment();
     }
+
+    /**
+     * Outcome of steps 4–5 — the rows to write, and the FHIR rejection to raise once they are written.
+     */
+    private record CheckedEvent(
+            EventIngestionRequest request,
+            OffsetDateTime receivedAt,
+            PendingEvent rows,
+            FhirValidationException rejection
+    ) {}
+
+    /**
+     * Outcome of steps 2–8 — either a duplicate response, or the persisted rows ready to publish.
+     */
+    private record PreparedEvent(
+            EventIngestionRequest request,
+            InboundEvent inboundEvent,
+            EventLog eventLog,
+            OffsetDateTime receivedAt,
+            EventIngestionResponse duplicate
+    ) {}
 }
@@ -0,0 +1,88 @@
+package org.openphc.cce.collector.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.openphc.cce.collector.domain.model.DeadLetterEvent;
+import org.openphc.cce.collector.domain.model.EventLog;
+import org.openphc.cce.collector.domain.model.InboundEvent;
+import org.openphc.cce.collector.domain.repository.DeadLetterEventRepository;
+import org.openphc.cce.collector.domain.repository.EventLogRepository;
+import org.openphc.cce.collector.domain.repository.InboundEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Transactional write path for ingestion — writes inbound_event, event_log and dead_letter_event
+ * rows for a group of events in one transaction. inbound_event goes in as one multi-row
+ * INSERT ... ON CONFLICT DO NOTHING, which is where duplicates are decided; the rest relies on
+ * Hibernate JDBC batching (hibernate.jdbc.batch_size + reWriteBatchedInserts).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EventPersistenceService {
+
+    private final InboundEventRepository inboundEventRepository;
+    private final EventLogRepository eventLogRepository;
+    private final DeadLetterEventRepository deadLetterEventRepository;
+
+    /**
+     * Persist all rows for a group of events in a single transaction.
+     * Inbound events are inserted first so their ids can be linked into the corresponding
+     * event_log and dead_letter_event rows. An event whose (cloudevents_id, source) is already in
+     * inbound_event is a duplicate: none of its rows are written.
+     *
+     * @return the events found to be duplicates
+     */
+    @Transactional
+    public Set<PendingEvent> persistAll(List<PendingEvent> events) {
+        List<InboundEvent> inboundEvents = new ArrayList<>(events.size());
+        for (PendingEvent event : events) {
+            if (event.inboundEvent() != null) {
+                inboundEvents.add(event.inboundEvent());
+            }
+        }
+        Set<UUID> inserted = inboundEventRepository.insertIfAbsent(inboundEvents);
+
+        Set<PendingEvent> duplicates = new HashSet<>();
+        List<EventLog> eventLogs = new ArrayList<>(events.size());
+        List<DeadLetterEvent> deadLetters = new ArrayList<>();
+        for (PendingEvent event : events) {
+            if (event.inboundEvent() != null && !inserted.contains(event.inboundEvent().getId())) {
+                duplicates.add(event);
+                continue;
+            }
+            UUID inboundEventId = event.inboundEvent() != null ? event.inboundEvent().getId() : null;
+            if (event.eventLog() != null) {
+                event.eventLog().setInboundEventId(inboundEventId);
+                eventLogs.add(event.eventLog());
+            }
+            if (event.deadLetter() != null) {
+                event.deadLetter().setInboundEventId(inboundEventId);
+                deadLetters.add(event.deadLetter());
+            }
+        }
+        eventLogRepository.saveAll(eventLogs);
+        deadLetterEventRepository.saveAll(deadLetters);
+
+        log.debug("Persisted batch: inbound={}, duplicate={}, eventLog={}, deadLetter={}",
+                inserted.size(), duplicates.size(), eventLogs.size(), deadLetters.size());
+        return duplicates;
+    }
+
+    /**
+     * Rows to write for one event. Any component may be null — e.g. an invalid envelope
+     * has only a dead letter, an accepted event has no dead letter.
+     */
+    public record PendingEvent(
+            InboundEvent inboundEvent,
+            EventLog eventLog,
+            DeadLetterEvent deadLetter
+    ) {}
+}
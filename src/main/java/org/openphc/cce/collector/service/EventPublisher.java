@@ -11,11 +11,16 @@ import org.openphc.cce.collector.kafka.InboundEventProducer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Publishes event_log records to Kafka (outbox pattern).
@@ -45,27 +50,93 @@ public class EventPublisher {
             RecordMetadata metadata = inboundEventProducer.publish(message).join();
 
             // Update event log with Kafka metadata
-            eventLog.setPublishStatus(PublishStatus.PUBLISHED);
-            eventLog.setPublishedAt(OffsetDateTime.now(ZoneOffset.UTC));
-            eventLog.setKafkaTopic(metadata.topic());
-            eventLog.setKafkaPartition(metadata.partition());
-            eventLog.setKafkaOffset(metadata.offset());
-            eventLogRepository.save(eventLog);
+            markPublished(eventLog, metadata, OffsetDateTime.now(ZoneOffset.UTC));
+            eventLogRepository.updatePublishStatus(List.of(eventLog));
 
             return message;
         } catch (Exception e) {
             log.error("Kafka publish failed for event_log id={}: {}", eventLog.getId(), e.getMessage());
             eventLog.setPublishStatus(PublishStatus.FAILED);
-            eventLogRepository.save(eventLog);
+            eventLogRepository.updatePublishStatus(List.of(eventLog));
             throw e;
         }
     }
 
     /**
-     * Scheduled retry of pending/failed event log records.
+     * Publish a single event log record without blocking the caller.
+     * The event_log update runs on {@code executor} once the broker acknowledges,
+     * never on the Kafka producer I/O thread.
+     *
+     * @param eventLog the event log to publish
+     * @param executor executor for the post-publish database update
+     * @return future completing with the published message, or exceptionally on publish failure
+     */
+    public CompletableFuture<CloudEventMessage> publishAsync(EventLog eventLog, Executor executor) {
+        CloudEventMessage message = buildCloudEventMessage(eventLog);
+
+        CompletableFuture<RecordMetadata> send;
+        try {
+            send = inboundEventProducer.publish(message);
+        } catch (Exception e) {
+            send = CompletableFuture.failedFuture(e);
+        }
+
+        return send.handleAsync((metadata, ex) -> {
+            if (ex != null) {
+                log.error("Kafka publish failed for event_log id={}: {}", eventLog.getId(), ex.getMessage());
+                eventLog.setPublishStatus(PublishStatus.FAILED);
+                eventLogRepository.updatePublishStatus(List.of(eventLog));
+                throw ex instanceof CompletionException ce ? ce : new CompletionException(ex);
+            }
+            markPublished(eventLog, metadata, OffsetDateTime.now(ZoneOffset.UTC));
+            eventLogRepository.updatePublishStatus(List.of(eventLog));
+            return message;
+        }, executor);
+    }
+
+    /**
+     * Publish a batch of event log records with a single producer flush, then record the
+     * Kafka metadata for all of them in one batched UPDATE.
+     *
+     * @param eventLogs the event logs to publish
+     * @return error message per event log whose publish failed (left with publish_status=FAILED for retry)
+     */
+    public Map<EventLog, String> publishAll(List<EventLog> eventLogs) {
+        if (eventLogs.isEmpty()) {
+            return Map.of();
+        }
+
+        List<CompletableFuture<RecordMetadata>> futures = new ArrayList<>(eventLogs.size());
+        for (EventLog eventLog : eventLogs) {
+            try {
+                futures.add(inboundEventProducer.publish(buildCloudEventMessage(eventLog)));
+            } catch (Exception e) {
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        inboundEventProducer.flush();
+
+        Map<EventLog, String> failed = new LinkedHashMap<>();
+        OffsetDateTime publishedAt = OffsetDateTime.now(ZoneOffset.UTC);
+        for (int i = 0; i < eventLogs.size(); i++) {
+            EventLog eventLog = eventLogs.get(i);
+            try {
+                markPublished(eventLog, futures.get(i).join(), publishedAt);
+            } catch (Exception e) {
+                log.error("Kafka publish failed for event_log id={}: {}", eventLog.getId(), e.getMessage());
+                eventLog.setPublishStatus(PublishStatus.FAILED);
+                failed.put(eventLog, e.getMessage());
+            }
+        }
+        eventLogRepository.updatePublishStatus(eventLogs);
+        return failed;
+    }
+
+    /**
+     * Scheduled retry of pending/failed event log records. Not transactional: each publish
+     * records its own outcome, so no transaction is held open while waiting on the broker.
      */
     @Scheduled(fixedDelayString = "${cce.collector.outbox.retry-interval-seconds:30}000")
-    @Transactional
     public void retryPendingPublishes() {
         OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minusSeconds(30);
         OffsetDateTime maxAge = OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(retryMaxAgeMinutes);
@@ -92,10 +163,18 @@ public class EventPublisher {
         }
     }
 
+    private void markPublished(EventLog eventLog, RecordMetadata metadata, OffsetDateTime publishedAt) {
+        eventLog.setPublishStatus(PublishStatus.PUBLISHED);
+        eventLog.setPublishedAt(publishedAt);
+        eventLog.setKafkaTopic(metadata.topic());
+        eventLog.setKafkaPartition(metadata.partition());
+        eventLog.setKafkaOffset(metadata.offset());
+    }
+
     /**
      * Build a CloudEventMessage from an EventLog record.
      */
-    private CloudEventMessage buildCloudEventMessage(EventLog eventLog) {
+    static CloudEventMessage buildCloudEventMessage(EventLog eventLog) {
         return CloudEventMessage.builder()
                 .id(eventLog.getCloudeventsId())
                 .source(eventLog.getSource())
@@ -1,15 +1,34 @@
 package org.openphc.cce.collector.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.openphc.cce.collector.api.dto.EventIngestionRequest;
 import org.openphc.cce.collector.api.exception.FhirValidationException;
+import org.openphc.cce.collector.api.exception.TooManyRequestsException;
+import org.openphc.cce.collector.domain.model.enums.RejectionReason;
+import org.openphc.cce.collector.fhir.FhirProfileValidator;
 import org.openphc.cce.collector.fhir.FhirResourceValidator;
 import org.openphc.cce.collector.fhir.FhirResourceValidator.ValidationResult;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Validates FHIR R4 payloads when datacontenttype is application/fhir+json.
+ * <p>
+ * With profile validation enabled, a structurally valid payload is also checked for profile
+ * conformance — before it is accepted in sync mode, or after it is stored in async mode, where a
+ * non-conformant event is dead-lettered against its inbound event.
  */
 @Component
 @Slf4j
@@ -18,16 +37,34 @@ public class FhirPayloadValidator {
     private static final String FHIR_CONTENT_TYPE = "application/fhir+json";
 
     private final FhirResourceValidator fhirResourceValidator;
+    private final FhirProfileValidator profileValidator; // null unless profile validation is enabled
+    private final DeadLetterService deadLetterService;
+    private final ObjectMapper objectMapper;
     private final boolean fhirValidationEnabled;
     private final boolean strictMode;
+    private final Duration profileTimeout;
+    private final long retryAfterSeconds;
+    private final MeterRegistry meterRegistry;
 
     public FhirPayloadValidator(
             FhirResourceValidator fhirResourceValidator,
+            ObjectProvider<FhirProfileValidator> profileValidator,
+            DeadLetterService deadLetterService,
+            ObjectMapper objectMapper,
             @Value("${cce.collector.fhir-validation.enabled:true}") boolean fhirValidationEnabled,
-            @Value("${cce.collector.fhir-validation.strict-mode:false}") boolean strictMode) {
+            @Value("${cce.collector.fhir-validation.strict-mode:false}") boolean strictMode,
+            @Value("${cce.collector.fhir-validation.profiles.timeout:5s}") Duration profileTimeout,
+            @Value("${cce.collector.admission.retry-after-seconds:1}") long retryAfterSeconds,
+            MeterRegistry meterRegistry) {
         this.fhirResourceValidator = fhirResourceValidator;
+        this.profileValidator = profileValidator.getIfAvailable();
+        this.deadLetterService = deadLetterService;
+        this.objectMapper = objectMapper;
         this.fhirValidationEnabled = fhirValidationEnabled;
         this.strictMode = strictMode;
+        this.profileTimeout = profileTimeout;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -35,14 +72,7 @@ public class FhirPayloadValidator {
      * Throws FhirValidationException if validation fails.
      */
     public void validate(EventIngestionRequest request) {
-        if (!fhirValidationEnabled) {
-            log.debug("FHIR validation disabled, skipping for event id={}", request.getId());
-            return;
-        }
-
-        String contentType = request.getDatacontenttype();
-        if (contentType == null || !FHIR_CONTENT_TYPE.equals(contentType)) {
-            log.debug("datacontenttype is not FHIR, skipping FHIR validation for event id={}", request.getId());
+        if (!applies(request)) {
             return;
         }
 
@@ -62,6 +92,90 @@ public class FhirPayloadValidator {
                     log.warn("FHIR validation warning for event id={}: {}", request.getId(), w));
         }
 
+        if (profileValidator != null && !profileValidator.isDeferred()) {
+            ValidationResult conformance = awaitProfileValidation(request);
+            if (!conformance.valid()) {
+                throw new FhirValidationException(
+                        "FHIR R4 profile validation failed", conformance.errors());
+            }
+        }
+
         log.debug("FHIR payload validation passed for event id={}", request.getId());
     }
+
+    /**
+     * In async profile mode, check an accepted and stored event for profile conformance in the
+     * background, dead-lettering it if it does not conform. A no-op otherwise.
+     *
+     * @param inboundEventId the stored inbound event the dead letter refers to
+     */
+    public void validateDeferred(EventIngestionRequest request, UUID inboundEventId) {
+        if (profileValidator == null || !profileValidator.isDeferred() || !applies(request)) {
+            return;
+        }
+        try {
+            profileValidator.submit(request.getData()).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.error("Deferred FHIR profile validation failed for event id={}", request.getId(), ex);
+                    recordDeferred("failed");
+                } else if (result.valid()) {
+                    recordDeferred("conformant");
+                } else {
+                    recordDeferred("nonconformant");
+                    deadLetterService.persistValidationFailure(
+                            inboundEventId, request.getId(), request.getSource(), request.getType(),
+                            request.getSubject(), request.rawPayloadJson(objectMapper),
+                            RejectionReason.INVALID_FHIR, String.join("; ", result.errors()),
+                            request.getCorrelationid(), request.getFacilityid());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The event is already accepted; conformance goes unchecked rather than holding up ingestion
+            log.warn("FHIR profile validation queue full, skipping deferred check for event id={}", request.getId());
+            recordDeferred("skipped");
+        }
+    }
+
+    private boolean applies(EventIngestionRequest request) {
+        if (!fhirValidationEnabled) {
+            log.debug("FHIR validation disabled, skipping for event id={}", request.getId());
+            return false;
+        }
+
+        String contentType = request.getDatacontenttype();
+        if (contentType == null || !FHIR_CONTENT_TYPE.equals(contentType)) {
+            log.debug("datacontenttype is not FHIR, skipping FHIR validation for event id={}", request.getId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Run profile validation on its pool and wait for it — a full queue or a timeout is overload,
+     * answered with 429 like the other bounded queues.
+     */
+    private ValidationResult awaitProfileValidation(EventIngestionRequest request) {
+        try {
+            return profileValidator.submit(request.getData())
+                    .get(profileTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            throw new TooManyRequestsException("FHIR profile validation is saturated. Retry later.", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for FHIR profile validation", e);
+        }
+    }
+
+    private void recordDeferred(String outcome) {
+        Counter.builder("cce.collector.fhir.profile.deferred")
+                .description("Deferred FHIR profile validations by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
 }
@@ -0,0 +1,242 @@
+package org.openphc.cce.collector.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.openphc.cce.collector.service.EventPersistenceService.PendingEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for the single-event write path. Concurrent ingestions enqueue their rows and
+ * writer threads flush them every {@code max-batch-size} rows or {@code flush-window} after the
+ * first row arrived, whichever comes first, as one {@link EventPersistenceService#persistAll}
+ * transaction — so N concurrent events cost one commit (and one WAL flush) instead of N.
+ * <p>
+ * If a group fails, its events are retried one transaction each so a single bad row only fails
+ * its own caller. Duplicates do not fail a group: persistAll skips them and they complete false.
+ * <p>
+ * Opt-in: a lone event waits up to {@code flush-window} for company, which only pays off when
+ * enough ingestions run concurrently to form groups.
+ */
+@Component
+@ConditionalOnProperty(name = "cce.collector.group-commit.enabled", havingValue = "true")
+@Slf4j
+public class GroupCommitWriter implements SmartLifecycle {
+
+    private final EventPersistenceService eventPersistenceService;
+    private final int maxBatchSize;
+    private final long flushWindowNanos;
+    private final int writers;
+    private final BlockingQueue<Entry> queue;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushWindowTimer;
+    private final Timer flushTimer;
+
+    private final List<Thread> writerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    public GroupCommitWriter(
+            EventPersistenceService eventPersistenceService,
+            @Value("${cce.collector.group-commit.max-batch-size:100}") int maxBatchSize,
+            @Value("${cce.collector.group-commit.flush-window:2ms}") Duration flushWindow,
+            @Value("${cce.collector.group-commit.queue-capacity:5000}") int queueCapacity,
+            @Value("${cce.collector.group-commit.writers:2}") int writers,
+            MeterRegistry meterRegistry) {
+        this.eventPersistenceService = eventPersistenceService;
+        this.maxBatchSize = maxBatchSize;
+        this.flushWindowNanos = flushWindow.toNanos();
+        this.writers = writers;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.batchSizeSummary = DistributionSummary.builder("cce.collector.groupcommit.batch.size")
+                .description("Events written per group-commit transaction")
+                .register(meterRegistry);
+        this.flushWindowTimer = Timer.builder("cce.collector.groupcommit.flush.window")
+                .description("Time from the first event of a group being enqueued to its flush starting")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("cce.collector.groupcommit.flush.duration")
+                .description("Time to write and commit one group")
+                .register(meterRegistry);
+        Gauge.builder("cce.collector.groupcommit.queue.depth", queue, BlockingQueue::size)
+                .description("Events waiting for a group commit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enqueue an event's rows for the next group commit.
+     *
+     * @return a future completed once the rows are committed — with true, or false if the event was
+     *         a duplicate and nothing was written — or completed exceptionally with the write failure
+     * @throws RejectedExecutionException if the queue is full or the writer is stopped
+     */
+    public CompletableFuture<Boolean> submit(PendingEvent event) {
+        if (!running) {
+            throw new RejectedExecutionException("Group-commit writer is not running");
+        }
+        Entry entry = new Entry(event, System.nanoTime(), new CompletableFuture<>());
+        if (!queue.offer(entry)) {
+            throw new RejectedExecutionException("Group-commit queue is full");
+        }
+        // Raced with stop(): take the entry back unless a writer or stop()'s drain already has it
+        if (!running && queue.remove(entry)) {
+            throw new RejectedExecutionException("Group-commit writer is not running");
+        }
+        return entry.future();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < writers; i++) {
+            writerThreads.add(Thread.ofPlatform().name("group-commit-" + i).daemon().start(this::runWriter));
+        }
+        log.info("Group-commit writer started: writers={}, maxBatchSize={}, flushWindow={}us",
+                writers, maxBatchSize, TimeUnit.NANOSECONDS.toMicros(flushWindowNanos));
+    }
+
+    /**
+     * Stop accepting events, then let the writers drain what is already queued. Whatever they
+     * leave behind (a writer that did not finish in time) is failed rather than left pending.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Thread thread : writerThreads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        writerThreads.clear();
+        List<Entry> left = new ArrayList<>();
+        queue.drainTo(left);
+        fail(left, new RejectedExecutionException("Group-commit writer stopped"));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before and stop after the web server, so no accepted request finds the writer stopped.
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void runWriter() {
+        List<Entry> group = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = first.enqueuedAt() + flushWindowNanos;
+                while (group.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (queue.drainTo(group, maxBatchSize - group.size()) > 0) {
+                        continue;
+                    }
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                flush(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                log.error("Group-commit writer failed: {}", e.getMessage(), e);
+                fail(group, e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    void flush(List<Entry> group) {
+        long start = System.nanoTime();
+        flushWindowTimer.record(start - group.get(0).enqueuedAt(), TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(group.size());
+
+        List<PendingEvent> events = new ArrayList<>(group.size());
+        for (Entry entry : group) {
+            events.add(entry.event());
+        }
+        try {
+            Set<PendingEvent> duplicates = eventPersistenceService.persistAll(events);
+            group.forEach(entry -> entry.future().complete(!duplicates.contains(entry.event())));
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).future().completeExceptionally(e);
+            } else {
+                log.warn("Group commit of {} events failed, retrying individually: {}", group.size(), e.getMessage());
+                group.forEach(this::writeAlone);
+            }
+        } catch (Throwable e) {
+            // Not a bad row (e.g. an Error): fail the whole group, and keep the writer thread alive
+            log.error("Group commit of {} events failed: {}", group.size(), e.getMessage(), e);
+            fail(group, e);
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void writeAlone(Entry entry) {
+        PendingEvent event = entry.event();
+        // Ids generated in the rolled-back transaction were never written
+        if (event.inboundEvent() != null) {
+            event.inboundEvent().setId(null);
+        }
+        if (event.eventLog() != null) {
+            event.eventLog().setId(null);
+        }
+        if (event.deadLetter() != null) {
+            event.deadLetter().setId(null);
+        }
+        try {
+            entry.future().complete(eventPersistenceService.persistAll(List.of(event)).isEmpty());
+        } catch (Throwable e) {
+            entry.future().completeExceptionally(e);
+        }
+    }
+
+    private static void fail(List<Entry> entries, Throwable cause) {
+        entries.forEach(entry -> entry.future().completeExceptionally(cause));
+    }
+
+    record Entry(PendingEvent event, long enqueuedAt, CompletableFuture<Boolean> future) {}
+}
@@ -0,0 +1,31 @@
+package org.openphc.cce.collector.service;
+
+import org.openphc.cce.collector.concurrency.PipelineStage;
+
+/**
+ * The stages of the staged ingestion pipeline, in processing order.
+ *
+ * @param validate CloudEvents envelope validation
+ * @param dedup    duplicate lookup
+ * @param fhir     normalization and FHIR payload validation (CPU-bound)
+ * @param persist  inbound_event / event_log write
+ * @param publish  Kafka publish and response
+ */
+public record IngestionStages(
+        PipelineStage validate,
+        PipelineStage dedup,
+        PipelineStage fhir,
+        PipelineStage persist,
+        PipelineStage publish
+) implements AutoCloseable {
+
+    @Override
+    public void close() {
+        // Upstream first, so queued work can still drain into the later stages
+        validate.close();
+        dedup.close();
+        fhir.close();
+        persist.close();
+        publish.close();
+    }
+}
@@ -0,0 +1,253 @@
+package org.openphc.cce.collector.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.api.dto.EventIngestionResponse;
+import org.openphc.cce.collector.domain.model.enums.RejectionReason;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming NDJSON ingestion for large backfills.
+ * Reads one CloudEvent per line, ingests them in micro-batches through
+ * {@link EventIngestionService#ingestPacedBatch} and writes one result line per input line
+ * as soon as each micro-batch completes. Memory use is bounded by the micro-batch size
+ * and the max line length, independent of the upload size.
+ * <p>
+ * The per-source rate limit paces the stream instead of rejecting lines: reading waits until the
+ * event's source has a token, so a backfill runs at its source's rate rather than losing
+ * everything past the burst.
+ */
+@Service
+@Slf4j
+public class NdjsonIngestionService {
+
+    private static final int NEWLINE = '\n';
+    private static final int READ_CHUNK_BYTES = 8192;
+
+    private final EventIngestionService eventIngestionService;
+    private final DeadLetterService deadLetterService;
+    private final SourceRateLimiter sourceRateLimiter;
+    private final ObjectReader requestReader;
+    private final ObjectWriter responseWriter;
+    private final ObjectMapper objectMapper;
+    private final int microBatchSize;
+    private final int maxLineBytes;
+
+    public NdjsonIngestionService(
+            EventIngestionService eventIngestionService,
+            DeadLetterService deadLetterService,
+            SourceRateLimiter sourceRateLimiter,
+            ObjectMapper objectMapper,
+            @Value("${cce.collector.stream.micro-batch-size:100}") int microBatchSize,
+            @Value("${cce.collector.batch.max-size:500}") int maxBatchSize,
+            @Value("${cce.collector.max-payload-size:1048576}") int maxLineBytes) {
+        // Every micro-batch goes through ingestPacedBatch, which rejects anything over batch.max-size
+        if (microBatchSize > maxBatchSize) {
+            throw new IllegalArgumentException("cce.collector.stream.micro-batch-size (" + microBatchSize
+                    + ") must not exceed cce.collector.batch.max-size (" + maxBatchSize + ")");
+        }
+        this.eventIngestionService = eventIngestionService;
+        this.deadLetterService = deadLetterService;
+        this.sourceRateLimiter = sourceRateLimiter;
+        this.requestReader = objectMapper.readerFor(EventIngestionRequest.class);
+        this.responseWriter = objectMapper.writerFor(EventIngestionResponse.class);
+        this.objectMapper = objectMapper;
+        this.microBatchSize = microBatchSize;
+        this.maxLineBytes = maxLineBytes;
+    }
+
+    /**
+     * Ingest an NDJSON stream, writing NDJSON results to {@code out}.
+     * If processing aborts (e.g. the database is unavailable) the result stream simply ends:
+     * every line with a written result has been durably processed, so a client can resume
+     * from the first line without one.
+     *
+     * @return number of lines processed
+     */
+    public long ingest(InputStream in, OutputStream out) throws IOException {
+        LineReader reader = new LineReader(in);
+        LineBuffer line = reader.line();
+
+        List<EventIngestionRequest> batch = new ArrayList<>(microBatchSize);
+        List<Long> batchLines = new ArrayList<>(microBatchSize);
+        long lineNumber = 0;
+
+        LineStatus status;
+        while ((status = reader.next()) != LineStatus.END_OF_STREAM) {
+            lineNumber++;
+            if (status == LineStatus.TOO_LONG) {
+                writeResult(out, rejectLine(lineNumber, RejectionReason.PAYLOAD_TOO_LARGE,
+                        "Line exceeds max payload size of " + maxLineBytes + " bytes", null));
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+
+            EventIngestionRequest request;
+            try {
+                request = requestReader.readValue(line.buffer(), 0, line.size());
+                request.setRawJson(line.toString(StandardCharsets.UTF_8));
+            } catch (JsonProcessingException e) {
+                String raw = line.toString(StandardCharsets.UTF_8);
+                writeResult(out, rejectLine(lineNumber, RejectionReason.DESERIALIZATION_ERROR,
+                        e.getOriginalMessage(), raw));
+                continue;
+            }
+
+            batch.add(request);
+            batchLines.add(lineNumber);
+            if (batch.size() >= microBatchSize) {
+                flushBatch(batch, batchLines, out);
+            }
+        }
+        flushBatch(batch, batchLines, out);
+        log.info("NDJSON ingestion completed: lines={}", lineNumber);
+        return lineNumber;
+    }
+
+    private void flushBatch(List<EventIngestionRequest> batch, List<Long> batchLines, OutputStream out)
+            throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            for (EventIngestionRequest request : batch) {
+                sourceRateLimiter.acquire(request.getSource(), request.getFacilityid());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("NDJSON ingestion interrupted waiting for rate-limit tokens");
+        }
+        List<EventIngestionResponse> results = eventIngestionService.ingestPacedBatch(batch);
+        for (int i = 0; i < results.size(); i++) {
+            EventIngestionResponse result = results.get(i);
+            result.setLine(batchLines.get(i));
+            writeResult(out, result);
+        }
+        out.flush();
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private EventIngestionResponse rejectLine(long lineNumber, RejectionReason reason, String details, String raw)
+            throws JsonProcessingException {
+        deadLetterService.persistValidationFailure(
+                null, null, null, null, null,
+                objectMapper.writeValueAsString(Map.of("line", lineNumber, "raw", raw != null ? raw : "")),
+                reason, details, null, null);
+        return EventIngestionResponse.builder()
+                .line(lineNumber)
+                .status("rejected")
+                .reason(reason.name())
+                .details(details)
+                .receivedAt(OffsetDateTime.now(ZoneOffset.UTC))
+                .build();
+    }
+
+    private void writeResult(OutputStream out, EventIngestionResponse result) throws IOException {
+        out.write(responseWriter.writeValueAsBytes(result));
+        out.write(NEWLINE);
+    }
+
+    /**
+     * Splits the stream into lines, reading it a chunk at a time and scanning each chunk for
+     * newlines rather than going through the stream byte by byte.
+     */
+    private final class LineReader {
+
+        private final InputStream in;
+        private final byte[] chunk = new byte[READ_CHUNK_BYTES];
+        private final LineBuffer line = new LineBuffer();
+        private int position;
+        private int limit;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        LineBuffer line() {
+            return line;
+        }
+
+        /**
+         * Read the next line into {@link #line()}, keeping at most maxLineBytes of it.
+         * An over-long line is consumed up to its newline and reported as TOO_LONG.
+         */
+        LineStatus next() throws IOException {
+            line.reset();
+            boolean tooLong = false;
+            while (true) {
+                if (position == limit) {
+                    int read = in.read(chunk);
+                    if (read == -1) {
+                        if (tooLong) {
+                            return LineStatus.TOO_LONG;
+                        }
+                        return line.size() > 0 ? LineStatus.LINE : LineStatus.END_OF_STREAM;
+                    }
+                    position = 0;
+                    limit = read;
+                }
+                int end = position;
+                while (end < limit && chunk[end] != NEWLINE) {
+                    end++;
+                }
+                int kept = Math.min(end - position, maxLineBytes - line.size());
+                line.write(chunk, position, kept);
+                tooLong |= kept < end - position;
+                if (end < limit) {
+                    position = end + 1;
+                    return tooLong ? LineStatus.TOO_LONG : LineStatus.LINE;
+                }
+                position = limit;
+            }
+        }
+    }
+
+    /**
+     * Reusable line buffer — exposes its backing array so lines are parsed without copying.
+     */
+    private static final class LineBuffer extends ByteArrayOutputStream {
+
+        LineBuffer() {
+            super(4096);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+
+        boolean isBlank() {
+            for (int i = 0; i < count; i++) {
+                if (!Character.isWhitespace(buf[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private enum LineStatus {
+        LINE,
+        TOO_LONG,
+        END_OF_STREAM
+    }
+}
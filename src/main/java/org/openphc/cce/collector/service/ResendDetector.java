@@ -0,0 +1,252 @@
+package org.openphc.cce.collector.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.domain.repository.EventLogRepository;
+import org.openphc.cce.collector.domain.repository.EventLogRepository.ResendKeyView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Secondary idempotency — catches resends that carry a new CloudEvents id, by the keys enabled in
+ * cce.collector.dedup.strategies:
+ * <ul>
+ *   <li>{@code source-event-id} — (source, sourceeventid), which EMRs keep stable on resend</li>
+ *   <li>{@code payload} — (source, 64-bit hash of the canonicalized data); keys sorted, top-level
+ *       {@code meta} left out since it changes between resends of the same resource</li>
+ * </ul>
+ * Each key has its own {@link DedupCache} of recently accepted events, in front of an indexed
+ * event_log lookup within the dedup lookback window. This is a pre-check: two resends arriving at
+ * the same moment can both pass it, as no unique constraint backs these keys.
+ * <p>
+ * Both strategies are opt-in: a new event misses the cache (it holds stored keys only), so each
+ * enabled strategy costs one indexed read per accepted event.
+ */
+@Component
+@Slf4j
+public class ResendDetector {
+
+    static final String SOURCE_EVENT_ID = "source-event-id";
+    static final String PAYLOAD = "payload";
+
+    private final EventLogRepository eventLogRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean bySourceEventId;
+    private final boolean byPayload;
+    private final int lookbackDays;
+    private final DedupCache sourceEventIdCache;
+    private final DedupCache payloadCache;
+
+    public ResendDetector(
+            EventLogRepository eventLogRepository,
+            ObjectMapper objectMapper,
+            @Value("${cce.collector.dedup.strategies:id}") List<String> strategies,
+            @Value("${cce.collector.dedup.lookback-days:30}") int lookbackDays,
+            @Value("${cce.collector.dedup.cache.enabled:true}") boolean cacheEnabled,
+            @Value("${cce.collector.dedup.cache.max-entries:1048576}") int cacheMaxEntries,
+            @Value("${cce.collector.dedup.cache.ttl:24h}") Duration cacheTtl,
+            MeterRegistry meterRegistry) {
+        this.eventLogRepository = eventLogRepository;
+        this.objectMapper = objectMapper;
+        this.bySourceEventId = strategies.contains(SOURCE_EVENT_ID);
+        this.byPayload = strategies.contains(PAYLOAD);
+        this.lookbackDays = lookbackDays;
+        this.sourceEventIdCache = bySourceEventId && cacheEnabled
+                ? new DedupCache(SOURCE_EVENT_ID, cacheMaxEntries, cacheTtl, meterRegistry, System::currentTimeMillis)
+                : null;
+        this.payloadCache = byPayload && cacheEnabled
+                ? new DedupCache(PAYLOAD, cacheMaxEntries, cacheTtl, meterRegistry, System::currentTimeMillis)
+                : null;
+        log.info("Dedup strategies: {}", strategies);
+    }
+
+    /**
+     * @return true if an event with the same secondary key was accepted within the lookback window
+     */
+    public boolean isResend(EventIngestionRequest request) {
+        String source = request.getSource();
+        String sourceEventId = request.getSourceeventid();
+        if (bySourceEventId && sourceEventId != null) {
+            if (cached(sourceEventIdCache, source, sourceEventId)
+                    || eventLogRepository.existsBySourceAndSourceEventIdAndReceivedAtAfter(source, sourceEventId, since())) {
+                log.info("Resend detected by source event id: source={}, sourceeventid={}, id={}",
+                        source, sourceEventId, request.getId());
+                // Only the key that matched: this event is never written, so its other keys are not stored
+                remember(sourceEventIdCache, source, sourceEventId);
+                return true;
+            }
+        }
+        Long fingerprint = fingerprint(request);
+        if (fingerprint != null) {
+            if (cached(payloadCache, source, Long.toHexString(fingerprint))
+                    || eventLogRepository.existsBySourceAndPayloadFingerprintAndReceivedAtAfter(source, fingerprint, since())) {
+                log.info("Resend detected by payload fingerprint: source={}, id={}", source, request.getId());
+                remember(payloadCache, source, Long.toHexString(fingerprint));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Batch variant of {@link #isResend} — one query per strategy, and later events in the batch
+     * repeating an earlier one's key count as resends too.
+     *
+     * @return the requests that are resends (compared by identity)
+     */
+    public Set<EventIngestionRequest> findResends(Collection<EventIngestionRequest> requests) {
+        Set<EventIngestionRequest> resends = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (requests.isEmpty() || (!bySourceEventId && !byPayload)) {
+            return resends;
+        }
+        Set<DedupKey> storedSourceEventIds = new HashSet<>();
+        Set<DedupKey> storedFingerprints = new HashSet<>();
+        lookUp(requests, storedSourceEventIds, storedFingerprints);
+
+        Set<DedupKey> seenSourceEventIds = new HashSet<>();
+        Set<DedupKey> seenFingerprints = new HashSet<>();
+        for (EventIngestionRequest request : requests) {
+            DedupKey sourceEventIdKey = sourceEventIdKey(request);
+            DedupKey fingerprintKey = fingerprintKey(request);
+            boolean resend = false;
+            if (sourceEventIdKey != null) {
+                resend = storedSourceEventIds.contains(sourceEventIdKey)
+                        || cached(sourceEventIdCache, sourceEventIdKey.source(), sourceEventIdKey.cloudeventsId())
+                        || !seenSourceEventIds.add(sourceEventIdKey);
+            }
+            if (!resend && fingerprintKey != null) {
+                resend = storedFingerprints.contains(fingerprintKey)
+                        || cached(payloadCache, fingerprintKey.source(), fingerprintKey.cloudeventsId())
+                        || !seenFingerprints.add(fingerprintKey);
+            }
+            if (resend) {
+                resends.add(request);
+            }
+        }
+        if (!resends.isEmpty()) {
+            log.info("Resends detected in batch: count={}", resends.size());
+        }
+        return resends;
+    }
+
+    /**
+     * Record an accepted event's secondary keys, so resends of it are answered from memory.
+     * Call only after its event_log row has committed.
+     */
+    public void remember(EventIngestionRequest request) {
+        if (sourceEventIdCache != null && request.getSourceeventid() != null) {
+            sourceEventIdCache.add(request.getSource(), request.getSourceeventid());
+        }
+        Long fingerprint = payloadCache != null ? fingerprint(request) : null;
+        if (fingerprint != null) {
+            payloadCache.add(request.getSource(), Long.toHexString(fingerprint));
+        }
+    }
+
+    /**
+     * Fingerprint of the event's data for the payload strategy — computed once and kept on the
+     * request; null when the strategy is off or there is no data.
+     */
+    public Long fingerprint(EventIngestionRequest request) {
+        if (!byPayload || request.getData() == null) {
+            return null;
+        }
+        if (request.getPayloadFingerprint() == null) {
+            Map<String, Object> data = new TreeMap<>(request.getData());
+            data.remove("meta");
+            try {
+                request.setPayloadFingerprint(DedupKey.hash(objectMapper.writeValueAsBytes(canonical(data))));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Event data could not be serialized for fingerprinting", e);
+            }
+        }
+        return request.getPayloadFingerprint();
+    }
+
+    private void lookUp(Collection<EventIngestionRequest> requests,
+                        Set<DedupKey> storedSourceEventIds, Set<DedupKey> storedFingerprints) {
+        Set<String> sources = new HashSet<>();
+        Set<String> sourceEventIds = new HashSet<>();
+        Set<Long> fingerprints = new HashSet<>();
+        for (EventIngestionRequest request : requests) {
+            if (bySourceEventId && request.getSourceeventid() != null) {
+                sources.add(request.getSource());
+                sourceEventIds.add(request.getSourceeventid());
+            }
+            Long fingerprint = fingerprint(request);
+            if (fingerprint != null) {
+                fingerprints.add(fingerprint);
+            }
+        }
+        OffsetDateTime since = since();
+        if (!sourceEventIds.isEmpty()) {
+            for (ResendKeyView row : eventLogRepository.findBySourceInAndSourceEventIdInAndReceivedAtAfter(
+                    sources, sourceEventIds, since)) {
+                storedSourceEventIds.add(new DedupKey(row.getSource(), row.getSourceEventId()));
+            }
+        }
+        if (!fingerprints.isEmpty()) {
+            for (ResendKeyView row : eventLogRepository.findByPayloadFingerprintInAndReceivedAtAfter(
+                    fingerprints, since)) {
+                storedFingerprints.add(new DedupKey(row.getSource(), Long.toHexString(row.getPayloadFingerprint())));
+            }
+        }
+    }
+
+    private DedupKey sourceEventIdKey(EventIngestionRequest request) {
+        return bySourceEventId && request.getSourceeventid() != null
+                ? new DedupKey(request.getSource(), request.getSourceeventid()) : null;
+    }
+
+    private DedupKey fingerprintKey(EventIngestionRequest request) {
+        Long fingerprint = fingerprint(request);
+        return fingerprint != null ? new DedupKey(request.getSource(), Long.toHexString(fingerprint)) : null;
+    }
+
+    private OffsetDateTime since() {
+        return OffsetDateTime.now(ZoneOffset.UTC).minusDays(lookbackDays);
+    }
+
+    private static boolean cached(DedupCache cache, String source, String key) {
+        return cache != null && cache.contains(source, key);
+    }
+
+    private static void remember(DedupCache cache, String source, String key) {
+        if (cache != null) {
+            cache.add(source, key);
+        }
+    }
+
+    /**
+     * Copy of a JSON value with every object's keys sorted, so equal content serializes equally.
+     */
+    private static Object canonical(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((k, v) -> sorted.put(String.valueOf(k), canonical(v)));
+            return sorted;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(item -> copy.add(canonical(item)));
+            return copy;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,197 @@
+package org.openphc.cce.collector.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-source (optionally per-source-and-facility) token-bucket rate limiting.
+ * Each bucket is a single atomic "theoretical arrival time" (GCRA), so admitting an event is one
+ * map lookup and one CAS with no shared lock; buckets live in a ConcurrentHashMap.
+ */
+@Component
+@Slf4j
+public class SourceRateLimiter {
+
+    /** Bucket shared by all keys beyond the max-buckets cap. */
+    static final String OVERFLOW_KEY = "_overflow";
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final boolean enabled;
+    private final boolean perFacility;
+    private final double defaultRate;
+    private final double burstSeconds;
+    private final int maxBuckets;
+    private final long idleNanos;
+    private final Map<String, Double> sourceRates;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public SourceRateLimiter(
+            @Value("${cce.collector.rate-limit.enabled:false}") boolean enabled,
+            @Value("${cce.collector.rate-limit.per-facility:false}") boolean perFacility,
+            @Value("${cce.collector.rate-limit.events-per-second:200}") double defaultRate,
+            @Value("${cce.collector.rate-limit.burst-seconds:2}") double burstSeconds,
+            @Value("${cce.collector.rate-limit.max-buckets:10000}") int maxBuckets,
+            @Value("${cce.collector.rate-limit.idle-eviction-seconds:600}") long idleEvictionSeconds,
+            Environment environment,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.perFacility = perFacility;
+        this.defaultRate = defaultRate;
+        this.burstSeconds = burstSeconds;
+        this.maxBuckets = maxBuckets;
+        this.idleNanos = Duration.ofSeconds(idleEvictionSeconds).toNanos();
+        this.sourceRates = Binder.get(environment)
+                .bind("cce.collector.rate-limit.sources", Bindable.mapOf(String.class, Double.class))
+                .orElse(Map.of());
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Take one token for the event's source (and facility, when per-facility limiting is on).
+     *
+     * @return 0 if the event is admitted, otherwise nanoseconds until a token becomes available
+     */
+    public long tryAcquire(String source, String facilityId) {
+        if (!enabled || source == null) {
+            return 0;
+        }
+        return bucket(source, facilityId).tryAcquire(System.nanoTime());
+    }
+
+    /**
+     * Take one token for the event's source, waiting for it instead of rejecting the event — for
+     * callers that pace a stream (NDJSON backfills) rather than shed it. A wait is not counted
+     * as a rejection.
+     */
+    public void acquire(String source, String facilityId) throws InterruptedException {
+        if (!enabled || source == null) {
+            return;
+        }
+        long waitNanos = bucket(source, facilityId).reserve(System.nanoTime());
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private Bucket bucket(String source, String facilityId) {
+        String facility = perFacility && facilityId != null ? facilityId : null;
+        String key = facility != null ? source + '|' + facility : source;
+        Bucket bucket = buckets.get(key);
+        return bucket != null ? bucket : bucketFor(key, source, facility);
+    }
+
+    private Bucket bucketFor(String key, String source, String facility) {
+        if (buckets.size() >= maxBuckets) {
+            Bucket existing = buckets.get(key);
+            return existing != null ? existing
+                    : buckets.computeIfAbsent(OVERFLOW_KEY, k -> newBucket(k, OVERFLOW_KEY, null, defaultRate));
+        }
+        double rate = sourceRates.getOrDefault(source, defaultRate);
+        return buckets.computeIfAbsent(key, k -> newBucket(k, source, facility, rate));
+    }
+
+    private Bucket newBucket(String key, String source, String facility, double rate) {
+        Bucket bucket = new Bucket(rate, burstSeconds, System.nanoTime());
+        Tags tags = Tags.of("source", source);
+        if (facility != null) {
+            tags = tags.and("facility", facility);
+        }
+        bucket.meters = List.of(
+                Gauge.builder("cce.collector.ratelimit.tokens", bucket, b -> b.tokens(System.nanoTime()))
+                        .description("Tokens currently available in the rate-limit bucket")
+                        .tags(tags)
+                        .register(meterRegistry),
+                FunctionCounter.builder("cce.collector.ratelimit.rejected", bucket, b -> b.rejected.sum())
+                        .description("Events rejected by the rate-limit bucket")
+                        .tags(tags)
+                        .register(meterRegistry));
+        log.debug("Created rate-limit bucket {} at {} events/s", key, rate);
+        return bucket;
+    }
+
+    /**
+     * Drop buckets that have been full (unused) for the idle period, with their meters,
+     * so one-off sources do not accumulate.
+     */
+    @Scheduled(fixedDelayString = "${cce.collector.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.forEach((key, bucket) -> {
+            if (now - bucket.tat.get() > idleNanos && buckets.remove(key, bucket)) {
+                bucket.meters.forEach(meterRegistry::remove);
+            }
+        });
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Token bucket as GCRA: {@code tat} is the time at which the bucket would be full again.
+     * An event is admitted if, after adding one emission interval, tat is within the burst window.
+     */
+    static final class Bucket {
+
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final AtomicLong tat;
+        private final LongAdder rejected = new LongAdder();
+        private List<Meter> meters = List.of();
+
+        Bucket(double eventsPerSecond, double burstSeconds, long now) {
+            this.intervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / eventsPerSecond));
+            this.burstNanos = Math.max(intervalNanos, (long) (burstSeconds * NANOS_PER_SECOND));
+            this.tat = new AtomicLong(now);
+        }
+
+        long tryAcquire(long now) {
+            while (true) {
+                long current = tat.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long excess = next - now - burstNanos;
+                if (excess > 0) {
+                    rejected.increment();
+                    return excess;
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Take the next token even if it is not available yet.
+         *
+         * @return nanoseconds until that token would have been admitted, 0 if it is available now
+         */
+        long reserve(long now) {
+            long next = tat.accumulateAndGet(now, (current, at) -> Math.max(current, at) + intervalNanos);
+            return Math.max(0, next - now - burstNanos);
+        }
+
+        double tokens(long now) {
+            long backlog = Math.max(0, tat.get() - now);
+            return (double) (burstNanos - backlog) / intervalNanos;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.openphc.cce.collector.service;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.openphc.cce.collector.api.dto.CloudEventMessage;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.api.exception.CloudEventValidationException;
+import org.openphc.cce.collector.api.exception.FhirValidationException;
+import org.openphc.cce.collector.domain.model.EventLog;
+import org.openphc.cce.collector.fhir.FhirResourceParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms up the FHIR and JSON paths before the service takes traffic. HAPI builds resource
+ * definitions lazily and the JIT has compiled nothing yet, so without this the first requests
+ * after a rollout each pay hundreds of milliseconds.
+ * <p>
+ * Runs as an {@link ApplicationRunner}: Spring Boot reports readiness (ACCEPTING_TRAFFIC) only
+ * after runners complete, so /actuator/health/readiness stays OUT_OF_SERVICE until warm-up is
+ * done. Phases, each timed as {@code cce.collector.startup.warmup{phase}}:
+ * <ol>
+ *   <li>{@code definitions} — load the R4 resource definitions our protocols use</li>
+ *   <li>{@code parse} — parse the sample resources through {@link FhirResourceParser}</li>
+ *   <li>{@code validate} — run the samples through envelope and FHIR payload validation</li>
+ *   <li>{@code serialize} — serialize them as raw_payload and as the Kafka message</li>
+ * </ol>
+ * A failure is logged and the service starts cold rather than not at all.
+ * <p>
+ * With {@code exit-when-done} the JVM exits after warm-up — the training run that records the
+ * AppCDS archive (the {@code training} profile, see the Dockerfile).
+ */
+@Component
+@ConditionalOnProperty(name = "cce.collector.warmup.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class StartupWarmup implements ApplicationRunner {
+
+    private final FhirContext fhirContext;
+    private final FhirResourceParser fhirResourceParser;
+    private final CloudEventValidator cloudEventValidator;
+    private final FhirPayloadValidator fhirPayloadValidator;
+    private final ObjectMapper objectMapper;
+    private final Resource samples;
+    private final List<String> resourceTypes;
+    private final int iterations;
+    private final boolean exitWhenDone;
+    private final ApplicationContext applicationContext;
+    private final MeterRegistry meterRegistry;
+
+    public StartupWarmup(
+            FhirContext fhirContext,
+            FhirResourceParser fhirResourceParser,
+            CloudEventValidator cloudEventValidator,
+            FhirPayloadValidator fhirPayloadValidator,
+            ObjectMapper objectMapper,
+            @Value("${cce.collector.warmup.samples:classpath:fhir/sample-kafka-events-ebuzima-visit.json}") Resource samples,
+            @Value("${cce.collector.warmup.resource-types:Patient,Encounter,Observation,Condition,MedicationRequest,"
+                    + "MedicationDispense,ServiceRequest,Procedure,EpisodeOfCare,PlanDefinition}") List<String> resourceTypes,
+            @Value("${cce.collector.warmup.iterations:200}") int iterations,
+            @Value("${cce.collector.warmup.exit-when-done:false}") boolean exitWhenDone,
+            ApplicationContext applicationContext,
+            MeterRegistry meterRegistry) {
+        this.fhirContext = fhirContext;
+        this.fhirResourceParser = fhirResourceParser;
+        this.cloudEventValidator = cloudEventValidator;
+        this.fhirPayloadValidator = fhirPayloadValidator;
+        this.objectMapper = objectMapper;
+        this.samples = samples;
+        this.resourceTypes = resourceTypes;
+        this.iterations = iterations;
+        this.exitWhenDone = exitWhenDone;
+        this.applicationContext = applicationContext;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        try {
+            List<EventIngestionRequest> events = loadSamples();
+            phase("definitions", () -> loadDefinitions(events));
+            phase("parse", () -> parse(events));
+            phase("validate", () -> validate(events));
+            phase("serialize", () -> serialize(events));
+            log.info("Warm-up finished in {} ms: {} sample events x {} iterations",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), events.size(), iterations);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Warm-up failed after {} ms, starting cold",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e);
+        }
+        if (exitWhenDone) {
+            log.info("Warm-up training run complete, exiting");
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    private void phase(String name, Runnable work) {
+        Timer.builder("cce.collector.startup.warmup")
+                .description("Time spent in each startup warm-up phase")
+                .tag("phase", name)
+                .register(meterRegistry)
+                .record(work);
+    }
+
+    List<EventIngestionRequest> loadSamples() throws IOException {
+        List<Map<String, Object>> entries;
+        try (InputStream in = samples.getInputStream()) {
+            entries = objectMapper.readValue(in, new TypeReference<>() {});
+        }
+        List<EventIngestionRequest> events = new ArrayList<>();
+        for (Map<String, Object> entry : entries) {
+            if (entry.get("data") instanceof Map<?, ?>) {
+                events.add(objectMapper.convertValue(entry, EventIngestionRequest.class));
+            }
+        }
+        return events;
+    }
+
+    private void loadDefinitions(List<EventIngestionRequest> events) {
+        Set<String> types = new LinkedHashSet<>(resourceTypes);
+        for (EventIngestionRequest event : events) {
+            fhirResourceParser.extractResourceType(event.getData()).ifPresent(types::add);
+        }
+        types.forEach(fhirContext::getResourceDefinition);
+    }
+
+    private void parse(List<EventIngestionRequest> events) {
+        for (int i = 0; i < iterations; i++) {
+            for (EventIngestionRequest event : events) {
+                fhirResourceParser.parse(event.getData());
+            }
+        }
+    }
+
+    private void validate(List<EventIngestionRequest> events) {
+        for (int i = 0; i < iterations; i++) {
+            for (EventIngestionRequest event : events) {
+                try {
+                    cloudEventValidator.validate(event);
+                    fhirPayloadValidator.validate(event);
+                } catch (CloudEventValidationException | FhirValidationException e) {
+                    // A rejected sample still exercises the path
+                }
+            }
+        }
+    }
+
+    private void serialize(List<EventIngestionRequest> events) {
+        try (JsonSerializer<CloudEventMessage> kafkaSerializer = new JsonSerializer<>()) {
+            for (int i = 0; i < iterations; i++) {
+                for (EventIngestionRequest event : events) {
+                    objectMapper.writeValueAsString(event.toRawPayload());
+                    kafkaSerializer.serialize("warmup", EventPublisher.buildCloudEventMessage(EventLog.builder()
+                            .cloudeventsId(event.getId())
+                            .source(event.getSource())
+                            .type(event.getType())
+                            .subject(event.getSubject())
+                            .eventTime(event.getTime() != null ? OffsetDateTime.parse(event.getTime()) : null)
+                            .dataContentType(event.getDatacontenttype())
+                            .correlationId(event.getCorrelationid())
+                            .sourceEventId(event.getSourceeventid())
+                            .facilityId(event.getFacilityid())
+                            .data(event.getData())
+                            .build()));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Sample event could not be serialized", e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+-- Payload fingerprint — 64-bit hash of the canonicalized data, for the payload dedup strategy
+ALTER TABLE event_log ADD COLUMN payload_fingerprint BIGINT;
+
+CREATE INDEX idx_event_log_payload_fingerprint
+    ON event_log (payload_fingerprint, received_at) WHERE payload_fingerprint IS NOT NULL;
@@ -0,0 +1,38 @@
+package org.openphc.cce.collector.api.controller;
+
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BinaryEventIngestionController header mapping.
+ */
+class BinaryEventIngestionControllerTest {
+
+    @Test
+    void shouldMapCeHeadersToEnvelope() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("ce-specversion", "1.0");
+        headers.add("CE-Id", "evt-001");
+        headers.add("ce-source", "rhie-mediator");
+        headers.add("ce-type", "org.openphc.cce.encounter");
+        headers.add("ce-subject", "260225-0002-5501");
+        headers.add("ce-facilityid", "FAC%20001");
+        headers.add("ce-dataschema", "a+b");
+        headers.add("Content-Type", "application/fhir+json; charset=utf-8");
+
+        EventIngestionRequest envelope = BinaryEventIngestionController.fromHeaders(headers);
+
+        assertEquals("1.0", envelope.getSpecversion());
+        assertEquals("evt-001", envelope.getId());
+        assertEquals("rhie-mediator", envelope.getSource());
+        assertEquals("org.openphc.cce.encounter", envelope.getType());
+        assertEquals("260225-0002-5501", envelope.getSubject());
+        assertEquals("FAC 001", envelope.getFacilityid());
+        assertEquals("a+b", envelope.getExtensions().get("dataschema"));
+        assertEquals("application/fhir+json", envelope.getDatacontenttype());
+        assertNull(envelope.getData());
+    }
+}
@@ -0,0 +1,45 @@
+package org.openphc.cce.collector.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RawPayloadCaptureAdvice.
+ */
+class RawPayloadCaptureAdviceTest {
+
+    private final RawPayloadCaptureAdvice advice = new RawPayloadCaptureAdvice();
+
+    @Test
+    void shouldAttachBodyExactlyAsSent() throws Exception {
+        String body = "{ \"specversion\":\"1.0\", \"id\":\"evt-1\",\"source\":\"s\",\"type\":\"t\",\"subject\":\"p\","
+                + "\"data\":{\"resourceType\":\"Observation\",\"valueQuantity\":{\"value\":1.10}},\"zz\":\"x\" }";
+        MockHttpInputMessage message = new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8));
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        HttpInputMessage captured = advice.beforeBodyRead(message, null, EventIngestionRequest.class,
+                MappingJackson2HttpMessageConverter.class);
+        EventIngestionRequest request = new ObjectMapper().readValue(captured.getBody(), EventIngestionRequest.class);
+        advice.afterBodyRead(request, captured, null, EventIngestionRequest.class,
+                MappingJackson2HttpMessageConverter.class);
+
+        assertEquals(body, request.getRawJson());
+        assertEquals("evt-1", request.getId());
+    }
+
+    @Test
+    void shouldOnlyApplyToSingleEventBodies() {
+        assertTrue(advice.supports(null, EventIngestionRequest.class, MappingJackson2HttpMessageConverter.class));
+        assertFalse(advice.supports(null, List.class, MappingJackson2HttpMessageConverter.class));
+    }
+}
@@ -0,0 +1,118 @@
+package org.openphc.cce.collector.api.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.Zstd;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.api.exception.PayloadTooLargeException;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RequestBodyDecodingFilter.
+ */
+class RequestBodyDecodingFilterTest {
+
+    private static final String BODY = "{\"resourceType\":\"Encounter\",\"status\":\"finished\"}";
+
+    private final RequestBodyDecodingFilter filter = new RequestBodyDecodingFilter(1024, 4096, new ObjectMapper());
+
+    @Test
+    void shouldDecodeGzipBody() throws Exception {
+        MockHttpServletRequest request = post("/v1/events", gzip(BODY.getBytes(StandardCharsets.UTF_8)), "gzip");
+
+        HttpServletRequest decoded = doFilter(request, new MockHttpServletResponse());
+
+        assertEquals(BODY, new String(decoded.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        assertNull(decoded.getHeader("Content-Encoding"));
+        assertEquals(-1, decoded.getContentLengthLong());
+    }
+
+    @Test
+    void shouldDecodeZstdBody() throws Exception {
+        MockHttpServletRequest request = post("/v1/events", Zstd.compress(BODY.getBytes(StandardCharsets.UTF_8)), "zstd");
+
+        HttpServletRequest decoded = doFilter(request, new MockHttpServletResponse());
+
+        assertEquals(BODY, new String(decoded.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldEnforceLimitOnDecodedBytes() throws Exception {
+        // 2 KB of zeros compresses to a few dozen bytes — well under the wire limit
+        byte[] compressed = gzip(new byte[2048]);
+        assertTrue(compressed.length < 1024);
+        MockHttpServletRequest request = post("/v1/events", compressed, "gzip");
+
+        HttpServletRequest decoded = doFilter(request, new MockHttpServletResponse());
+
+        assertThrows(PayloadTooLargeException.class, () -> decoded.getInputStream().readAllBytes());
+    }
+
+    @Test
+    void shouldApplyBatchLimitToBatchEndpoint() throws Exception {
+        MockHttpServletRequest request = post("/v1/events:batch", new byte[2048], null);
+
+        HttpServletRequest decoded = doFilter(request, new MockHttpServletResponse());
+
+        assertEquals(2048, decoded.getInputStream().readAllBytes().length);
+    }
+
+    @Test
+    void shouldRejectDeclaredOversizedBodyBeforeReading() throws Exception {
+        MockHttpServletRequest request = post("/v1/events", new byte[2048], null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest());
+        assertTrue(response.getContentAsString().contains("PAYLOAD_TOO_LARGE"));
+    }
+
+    @Test
+    void shouldRejectUnsupportedEncoding() throws Exception {
+        MockHttpServletRequest request = post("/v1/events", BODY.getBytes(StandardCharsets.UTF_8), "br");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(415, response.getStatus());
+        assertTrue(response.getContentAsString().contains("UNSUPPORTED_ENCODING"));
+    }
+
+    private HttpServletRequest doFilter(MockHttpServletRequest request, MockHttpServletResponse response)
+            throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        return (HttpServletRequest) chain.getRequest();
+    }
+
+    private static MockHttpServletRequest post(String path, byte[] body, String encoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setContentType("application/json");
+        request.setContent(body);
+        if (encoding != null) {
+            request.addHeader("Content-Encoding", encoding);
+        }
+        return request;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,117 @@
+package org.openphc.cce.collector.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AdaptiveConcurrencyLimiter.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void shouldRejectBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1.5, 0.2, 0.9, Map.of(), 1);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejected());
+
+        limiter.release(10 * MILLIS);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldGrowWhileLatencyIsStableAndLimitIsUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 1.5, 0.2, 0.9, Map.of(), 1);
+
+        for (int window = 0; window < 5; window++) {
+            saturate(limiter, 10 * MILLIS);
+            limiter.adjust();
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit should grow, was " + limiter.getLimit());
+    }
+
+    @Test
+    void shouldNotGrowWhenLimitIsUnused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 1.5, 0.2, 0.9, Map.of(), 1);
+
+        for (int window = 0; window < 5; window++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(10 * MILLIS);
+            limiter.adjust();
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void shouldShrinkWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 1, 100, 1.5, 0.2, 0.9, Map.of(), 1);
+        saturate(limiter, 10 * MILLIS);
+        limiter.adjust();
+        int before = limiter.getLimit();
+
+        for (int window = 0; window < 5; window++) {
+            saturate(limiter, 100 * MILLIS);
+            limiter.adjust();
+        }
+
+        assertTrue(limiter.getLimit() < before, "limit should shrink, was " + limiter.getLimit());
+    }
+
+    @Test
+    void shouldBackOffWhilePressureSignalIsRaised() {
+        AtomicBoolean pressure = new AtomicBoolean(true);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                20, 5, 100, 1.5, 0.2, 0.5, Map.of("db", pressure::get), 1);
+
+        limiter.adjust();
+        assertEquals(10, limiter.getLimit());
+        limiter.adjust();
+        assertEquals(5, limiter.getLimit());
+        limiter.adjust();
+        assertEquals(5, limiter.getLimit(), "limit must not drop below the minimum");
+
+        pressure.set(false);
+        saturate(limiter, 10 * MILLIS);
+        limiter.adjust();
+        assertTrue(limiter.getLimit() > 5);
+    }
+
+    @Test
+    void shouldIgnorePressureUntilSustained() {
+        AtomicBoolean pressure = new AtomicBoolean(true);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                20, 5, 100, 1.5, 0.2, 0.5, Map.of("db", pressure::get), 3);
+
+        limiter.adjust();
+        limiter.adjust();
+        assertEquals(20, limiter.getLimit(), "two raised windows are contention, not overload");
+        pressure.set(false);
+        limiter.adjust();
+        pressure.set(true);
+        limiter.adjust();
+        limiter.adjust();
+        assertEquals(20, limiter.getLimit(), "a cleared window restarts the count");
+        limiter.adjust();
+        assertEquals(10, limiter.getLimit());
+    }
+
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.openphc.cce.collector.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ConnectionLimitingDataSource.
+ */
+class ConnectionLimitingDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+
+    ConnectionLimitingDataSourceTest() throws SQLException {
+        when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+    }
+
+    @Test
+    void shouldReleasePermitOnCloseExactlyOnce() throws SQLException {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 2, Duration.ofMillis(10));
+
+        Connection connection = dataSource.getConnection();
+        assertEquals(1, dataSource.getAvailablePermits());
+
+        connection.close();
+        connection.close();
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void shouldTimeOutWhenAllPermitsAreHeld() throws SQLException {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(10));
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void shouldReleasePermitWhenPoolFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(10));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void shouldDelegateCallsToUnderlyingConnection() throws SQLException {
+        Connection underlying = mock(Connection.class);
+        when(underlying.getAutoCommit()).thenReturn(false);
+        when(target.getConnection()).thenReturn(underlying);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, Duration.ofMillis(10));
+
+        assertFalse(dataSource.getConnection().getAutoCommit());
+    }
+}
@@ -0,0 +1,70 @@
+package org.openphc.cce.collector.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PipelineStage.
+ */
+class PipelineStageTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldCompleteWithResultAndRecordTimings() throws Exception {
+        try (PipelineStage stage = new PipelineStage("fhir", 2, 10, meterRegistry)) {
+            assertEquals("ok", stage.submit(() -> "ok").get(5, TimeUnit.SECONDS));
+
+            assertEquals(1, meterRegistry.get("cce.collector.pipeline.wait").tag("stage", "fhir").timer().count());
+            assertEquals(1, meterRegistry.get("cce.collector.pipeline.service").tag("stage", "fhir").timer().count());
+        }
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWhenTaskThrows() {
+        try (PipelineStage stage = new PipelineStage("dedup", 1, 10, meterRegistry)) {
+            CompletableFuture<Object> future = stage.submit(() -> {
+                throw new IllegalStateException("db down");
+            });
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+        }
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFullAndExposeDepth() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try (PipelineStage stage = new PipelineStage("persist", 1, 1, meterRegistry)) {
+            stage.submit(() -> {
+                started.countDown();
+                await(release);
+                return null;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            stage.submit(() -> null);
+
+            assertEquals(1, stage.getQueueDepth());
+            assertEquals(1.0, meterRegistry.get("cce.collector.pipeline.queue.depth").tag("stage", "persist").gauge().value());
+            assertThrows(RejectedExecutionException.class, () -> stage.submit(() -> null));
+            release.countDown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.openphc.cce.collector.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StripedExecutor.
+ */
+class StripedExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldRunSameKeySeriallyInSubmissionOrder() throws Exception {
+        try (StripedExecutor executor = new StripedExecutor("test", 8, 1000, meterRegistry)) {
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int n = i;
+                futures.add(executor.submit("260225-0002-5501", () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    order.add(n);
+                    running.decrementAndGet();
+                    return n;
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, maxRunning.get());
+            for (int i = 0; i < 200; i++) {
+                assertEquals(i, order.get(i));
+            }
+        }
+    }
+
+    @Test
+    void shouldRunDifferentLanesInParallel() throws Exception {
+        try (StripedExecutor executor = new StripedExecutor("test", 8, 10, meterRegistry)) {
+            String first = "patient-a";
+            String second = findKeyOnOtherLane(executor, first);
+            CountDownLatch bothStarted = new CountDownLatch(2);
+
+            CompletableFuture<Boolean> a = executor.submit(first, () -> awaitBoth(bothStarted));
+            CompletableFuture<Boolean> b = executor.submit(second, () -> awaitBoth(bothStarted));
+
+            assertTrue(a.get(5, TimeUnit.SECONDS));
+            assertTrue(b.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void shouldExposeBacklogAndRejectWhenLaneIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try (StripedExecutor executor = new StripedExecutor("test", 4, 1, meterRegistry)) {
+            executor.submit("patient-a", () -> {
+                started.countDown();
+                awaitQuietly(release);
+                return null;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            executor.submit("patient-a", () -> null);
+
+            int lane = executor.laneOf("patient-a");
+            assertEquals(1, executor.getBacklog(lane));
+            assertEquals(1.0, meterRegistry.get("cce.collector.lanes.backlog")
+                    .tag("lane", Integer.toString(lane)).gauge().value());
+            assertThrows(RejectedExecutionException.class, () -> executor.submit("patient-a", () -> null));
+            release.countDown();
+        }
+    }
+
+    private static String findKeyOnOtherLane(StripedExecutor executor, String key) {
+        for (int i = 0; ; i++) {
+            String candidate = "patient-" + i;
+            if (executor.laneOf(candidate) != executor.laneOf(key)) {
+                return candidate;
+            }
+        }
+    }
+
+    private static boolean awaitBoth(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.openphc.cce.collector.fhir;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.fhir.FhirResourceValidator.ValidationResult;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FhirProfileValidator, against a differential-only Encounter profile that
+ * requires subject and period.
+ */
+class FhirProfileValidatorTest {
+
+    private static final String PROFILE = "https://openphc.org/fhir/StructureDefinition/test-encounter";
+
+    private static final SimpleMeterRegistry METER_REGISTRY = new SimpleMeterRegistry();
+    private static FhirProfileValidator validator;
+
+    @BeforeAll
+    static void buildValidator() throws Exception {
+        // Building the support chain loads the R4 core definitions, so share one instance
+        validator = new FhirProfileValidator(FhirContext.forR4(), new ObjectMapper(),
+                "classpath*:fhir/profiles/*.json", "sync", 2, 10,
+                new MockEnvironment().withProperty(
+                        "cce.collector.fhir-validation.profiles.resource-profiles.Patient", PROFILE),
+                METER_REGISTRY);
+    }
+
+    @AfterAll
+    static void close() {
+        validator.close();
+    }
+
+    private static Map<String, Object> encounter(Map<String, Object> extra) {
+        Map<String, Object> encounter = new java.util.HashMap<>(Map.of(
+                "resourceType", "Encounter", "status", "finished",
+                "class", Map.of("system", "http://terminology.hl7.org/CodeSystem/v3-ActCode", "code", "AMB"),
+                "meta", Map.of("profile", List.of(PROFILE))));
+        encounter.putAll(extra);
+        return encounter;
+    }
+
+    @Test
+    void shouldAcceptConformingResource() {
+        ValidationResult result = validator.validate(encounter(Map.of(
+                "subject", Map.of("reference", "Patient/260225-0002-5501"),
+                "period", Map.of("start", "2026-02-25T10:00:00Z"))));
+
+        assertTrue(result.valid(), () -> String.join("\n", result.errors()));
+    }
+
+    @Test
+    void shouldRejectResourceMissingProfileElements() throws Exception {
+        ValidationResult result = validator.submit(encounter(Map.of(
+                "subject", Map.of("reference", "Patient/260225-0002-5501")))).get();
+
+        assertFalse(result.valid());
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("Encounter.period")), result.errors()::toString);
+    }
+
+    @Test
+    void shouldValidateBaseDefinitionWithoutProfile() {
+        ValidationResult result = validator.validate(Map.of("resourceType", "Encounter", "status", "not-a-status",
+                "class", Map.of("code", "AMB")));
+
+        assertFalse(result.valid());
+    }
+
+    @Test
+    void shouldRecordLatencyPerProfile() {
+        validator.validate(encounter(Map.of()));
+        validator.validate(Map.of("resourceType", "Observation", "status", "final",
+                "meta", Map.of("profile", List.of("https://example.org/unknown")),
+                "code", Map.of("text", "weight")));
+
+        assertTrue(METER_REGISTRY.get("cce.collector.fhir.profile.validation").tag("profile", PROFILE)
+                .timer().count() > 0);
+        assertEquals(1, METER_REGISTRY.get("cce.collector.fhir.profile.validation")
+                .tag("profile", FhirProfileValidator.UNKNOWN_PROFILE).timer().count());
+    }
+}
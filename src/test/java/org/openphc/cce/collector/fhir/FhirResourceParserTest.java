@@ -0,0 +1,111 @@
+package org.openphc.cce.collector.fhir;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FhirResourceParser, run against the FHIR resources of the eBUZIMA visit sample.
+ */
+@Slf4j
+class FhirResourceParserTest {
+
+    private static final FhirContext FHIR_CONTEXT = FhirContext.forR4();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FhirResourceParser parser = new FhirResourceParser(FHIR_CONTEXT, objectMapper);
+
+    @Test
+    void shouldParseSampleResourcesSameAsStringPath() throws IOException {
+        List<Map<String, Object>> resources = sampleResources();
+        assertEquals(11, resources.size());
+
+        IParser encoder = FHIR_CONTEXT.newJsonParser();
+        for (Map<String, Object> data : resources) {
+            Optional<IBaseResource> parsed = parser.parse(data);
+            assertTrue(parsed.isPresent(), "failed to parse " + data.get("resourceType"));
+            assertEquals(encoder.encodeResourceToString(parseViaString(data)),
+                    encoder.encodeResourceToString(parsed.get()));
+        }
+    }
+
+    @Test
+    void shouldReturnEmptyForUnknownResourceType() {
+        assertTrue(parser.parse(Map.of("resourceType", "NotAResource", "id", "x")).isEmpty());
+    }
+
+    @Test
+    void shouldReturnEmptyForNonObjectNode() {
+        assertTrue(parser.parse(objectMapper.createArrayNode()).isEmpty());
+    }
+
+    /**
+     * Tree path vs the previous serialize-then-parse path, on the sample resources.
+     * Run with -Dfhir.parse.benchmark=true; prints ns per resource for each path.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "fhir.parse.benchmark", matches = "true")
+    void compareParsePaths() throws IOException {
+        List<Map<String, Object>> resources = sampleResources();
+        Function<Map<String, Object>, Object> tree = parser::parse;
+        Function<Map<String, Object>, Object> string = this::parseViaString;
+
+        for (int i = 0; i < 5; i++) {
+            measure(string, resources, 2_000);
+            measure(tree, resources, 2_000);
+        }
+        double stringNs = measure(string, resources, 20_000);
+        double treeNs = measure(tree, resources, 20_000);
+        log.info("FHIR parse, {} sample resources: string path {} ns/op, tree path {} ns/op ({}x)",
+                resources.size(), Math.round(stringNs), Math.round(treeNs), String.format("%.2f", stringNs / treeNs));
+    }
+
+    private static double measure(Function<Map<String, Object>, Object> path,
+                                  List<Map<String, Object>> resources, int rounds) {
+        Object sink = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink = path.apply(resources.get(i % resources.size()));
+        }
+        assertNotNull(sink);
+        return (System.nanoTime() - start) / (double) rounds;
+    }
+
+    private IBaseResource parseViaString(Map<String, Object> data) {
+        try {
+            IParser stringParser = FHIR_CONTEXT.newJsonParser();
+            return stringParser.parseResource(objectMapper.writeValueAsString(data));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<Map<String, Object>> sampleResources() throws IOException {
+        List<Map<String, Object>> events = objectMapper.readValue(
+                new File("artifacts/sample-kafka-events-ebuzima-visit.json"), new TypeReference<>() {});
+        List<Map<String, Object>> resources = new ArrayList<>();
+        for (Map<String, Object> event : events) {
+            if (event.get("data") instanceof Map<?, ?> data) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> resource = (Map<String, Object>) data;
+                resources.add(resource);
+            }
+        }
+        return resources;
+    }
+}
@@ -0,0 +1,81 @@
+package org.openphc.cce.collector.fhir;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.fhir.FhirResourceValidator.ValidationResult;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FhirResourceValidator.
+ */
+class FhirResourceValidatorTest {
+
+    private static final FhirContext FHIR_CONTEXT = FhirContext.forR4();
+    private static final StructuralFhirValidator STRUCTURAL =
+            new StructuralFhirValidator(FHIR_CONTEXT, List.of("Encounter"));
+
+    private final FhirResourceParser parser = new FhirResourceParser(FHIR_CONTEXT, new ObjectMapper());
+
+    private static Map<String, Object> encounter(String start) {
+        return Map.of("resourceType", "Encounter", "status", "finished",
+                "class", Map.of("code", "AMB"),
+                "subject", Map.of("reference", "Patient/260225-0002-5501"),
+                "period", Map.of("start", start));
+    }
+
+    @Test
+    void shouldValidateCompiledTypesStructurally() {
+        ValidationResult result = new FhirResourceValidator(parser, STRUCTURAL, "structural", false)
+                .validate(encounter("not-a-date"), "260225-0002-5501");
+
+        assertFalse(result.valid());
+        assertEquals(List.of("data.period.start: invalid dateTime value 'not-a-date'"), result.errors());
+    }
+
+    @Test
+    void shouldParseWithHapiInHapiMode() {
+        ValidationResult result = new FhirResourceValidator(parser, STRUCTURAL, "hapi", false)
+                .validate(encounter("not-a-date"), "260225-0002-5501");
+
+        assertFalse(result.valid());
+        assertEquals(List.of("FHIR R4 parse failed: data is not a valid FHIR resource"), result.errors());
+    }
+
+    @Test
+    void shouldParseTypesWithoutSchemaWithHapi() {
+        FhirResourceValidator validator = new FhirResourceValidator(parser, STRUCTURAL, "structural", false);
+
+        assertTrue(validator.validate(Map.of("resourceType", "Patient", "birthDate", "1990-01-01"), null).valid());
+        assertEquals(List.of("FHIR R4 parse failed: data is not a valid FHIR resource"),
+                validator.validate(Map.of("resourceType", "Patient", "birthDate", "x"), null).errors());
+    }
+
+    @Test
+    void shouldLeaveStructuralFindingsOutOfWarningsByDefault() {
+        ValidationResult result = new FhirResourceValidator(parser, STRUCTURAL, "structural", false)
+                .validate(Map.of("resourceType", "Encounter", "status", "finished",
+                        "subject", Map.of("reference", "Patient/other")), "260225-0002-5501");
+
+        assertTrue(result.valid());
+        assertEquals(List.of(
+                "data.subject.reference 'Patient/other' does not contain CloudEvents subject '260225-0002-5501'"),
+                result.warnings());
+    }
+
+    @Test
+    void shouldKeepSubjectCrossCheckWithStructuralWarnings() {
+        ValidationResult result = new FhirResourceValidator(parser, STRUCTURAL, "structural", true)
+                .validate(Map.of("resourceType", "Encounter", "status", "finished",
+                        "subject", Map.of("reference", "Patient/other")), "260225-0002-5501");
+
+        assertTrue(result.valid());
+        assertEquals(List.of("data.class: minimum cardinality 1 not met",
+                "data.subject.reference 'Patient/other' does not contain CloudEvents subject '260225-0002-5501'"),
+                result.warnings());
+    }
+}
@@ -0,0 +1,216 @@
+package org.openphc.cce.collector.fhir;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openphc.cce.collector.fhir.FhirResourceValidator.ValidationResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StructuralFhirValidator: same verdicts as a HAPI parse, on the eBUZIMA visit sample
+ * and on malformed payloads.
+ */
+@Slf4j
+class StructuralFhirValidatorTest {
+
+    private static final FhirContext FHIR_CONTEXT = FhirContext.forR4();
+    private static final StructuralFhirValidator VALIDATOR = new StructuralFhirValidator(FHIR_CONTEXT,
+            List.of("Patient", "Encounter", "Observation", "Condition", "MedicationRequest", "MedicationDispense",
+                    "ServiceRequest", "DiagnosticReport"));
+
+    private static final String OBSERVATION = "{\"resourceType\":\"Observation\",\"status\":\"final\","
+            + "\"code\":{\"text\":\"x\"},\"subject\":{\"reference\":\"Patient/1\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FhirResourceParser parser = new FhirResourceParser(FHIR_CONTEXT, objectMapper);
+
+    @Test
+    void shouldAcceptSampleResourcesWithoutWarnings() throws IOException {
+        List<Map<String, Object>> resources = sampleResources();
+        assertEquals(11, resources.size());
+
+        for (Map<String, Object> data : resources) {
+            ValidationResult result = VALIDATOR.validate(data).orElseThrow();
+            assertTrue(result.valid(), data.get("resourceType") + ": " + result.errors());
+            assertEquals(List.of(), result.warnings(), String.valueOf(data.get("resourceType")));
+            assertTrue(parser.parse(data).isPresent());
+        }
+    }
+
+    @Test
+    void shouldRejectExactlyWhatHapiRejects() throws IOException {
+        Map<String, String> payloads = new LinkedHashMap<>();
+        payloads.put("unknown element", OBSERVATION + ",\"foo\":\"bar\"}");
+        payloads.put("bad dateTime", OBSERVATION + ",\"effectiveDateTime\":\"not-a-date\"}");
+        payloads.put("out of range dateTime", OBSERVATION + ",\"effectiveDateTime\":\"2026-13-45\"}");
+        payloads.put("unknown status code", OBSERVATION.replace("final", "bogus") + "}");
+        payloads.put("string for object", OBSERVATION.replace("{\"text\":\"x\"}", "\"x\"") + "}");
+        payloads.put("array for single", OBSERVATION.replace("{\"reference\":\"Patient/1\"}",
+                "[{\"reference\":\"Patient/1\"}]") + "}");
+        payloads.put("object for array", OBSERVATION + ",\"category\":{\"text\":\"c\"}}");
+        payloads.put("bad decimal", OBSERVATION + ",\"valueQuantity\":{\"value\":\"abc\"}}");
+        payloads.put("two choice values", OBSERVATION + ",\"valueString\":\"a\",\"valueBoolean\":true}");
+        payloads.put("missing required", "{\"resourceType\":\"Observation\"}");
+        payloads.put("decimal for integer", OBSERVATION + ",\"valueInteger\":1.5}");
+        payloads.put("nested bad code", OBSERVATION.replace("{\"text\":\"x\"}",
+                "{\"coding\":[{\"system\":\"s\",\"code\":\"c\",\"userSelected\":\"yes\"}]}") + "}");
+        payloads.put("primitive extension", OBSERVATION + ",\"_status\":{\"id\":\"x\"}}");
+        payloads.put("contained without type", OBSERVATION + ",\"contained\":[{\"id\":\"p\"}]}");
+        payloads.put("contained bad value", OBSERVATION
+                + ",\"contained\":[{\"resourceType\":\"Patient\",\"birthDate\":\"x\"}]}");
+        payloads.put("backbone bad value", "{\"resourceType\":\"Encounter\",\"status\":\"finished\","
+                + "\"class\":{\"code\":\"AMB\"},\"participant\":[{\"period\":{\"start\":\"xx\"}}]}");
+        payloads.put("extension bad value", OBSERVATION
+                + ",\"extension\":[{\"url\":\"http://x\",\"valueDateTime\":\"yesterday\"}]}");
+        payloads.put("number for boolean", "{\"resourceType\":\"Patient\",\"active\":1}");
+        payloads.put("string for boolean", "{\"resourceType\":\"Patient\",\"active\":\"true\"}");
+        payloads.put("number for date", "{\"resourceType\":\"Patient\",\"birthDate\":12345}");
+        payloads.put("object for primitive", "{\"resourceType\":\"Patient\",\"birthDate\":{\"x\":1}}");
+        payloads.put("bad gender", "{\"resourceType\":\"Patient\",\"gender\":\"x\"}");
+        payloads.put("bad meta instant", "{\"resourceType\":\"Patient\",\"meta\":{\"lastUpdated\":\"yesterday\"}}");
+        payloads.put("narrative", "{\"resourceType\":\"Patient\",\"text\":{\"status\":\"generated\","
+                + "\"div\":\"not xhtml\"}}");
+
+        for (Map.Entry<String, String> payload : payloads.entrySet()) {
+            Map<String, Object> data = objectMapper.readValue(payload.getValue(), new TypeReference<>() {});
+            assertEquals(parser.parse(data).isPresent(), VALIDATOR.validate(data).orElseThrow().valid(),
+                    payload.getKey());
+        }
+    }
+
+    @Test
+    void shouldAgreeWithHapiOnPrimitiveValues() throws IOException {
+        List<String> values = List.of("2026", "2026-02", "2026-02-25", "2026-02-29", "2024-02-29", "2026-2-25",
+                "0000-01-01", "0001-01-01", "2026-02-25T08:00:00Z", "2026-02-25T08:00:00+02:00",
+                "2026-02-25T08:00:00.123Z", "2026-02-25T08:00:00.123456Z", "2026-02-25T08:00:00",
+                "2026-02-25T08:00Z", "2026-02-25T24:00:00Z", "2026-02-25T08:00:00+15:00", "2026-02-25 08:00:00Z",
+                "0", "1", "-1", "01", "+5", "1.5", "-0.25", "1e3", "1.0E10", ".5", "5.", "2147483648",
+                "true", "false", "TRUE", "yes", "abc", "AAEC", "12:30:00", "25:00:00");
+        Map<String, String> elements = new LinkedHashMap<>();
+        elements.put("date", "{\"resourceType\":\"Patient\",\"birthDate\":%s}");
+        elements.put("dateTime", OBSERVATION + ",\"effectiveDateTime\":%s}");
+        elements.put("instant", OBSERVATION + ",\"issued\":%s}");
+        elements.put("time", OBSERVATION + ",\"valueTime\":%s}");
+        elements.put("decimal", OBSERVATION + ",\"valueQuantity\":{\"value\":%s}}");
+        elements.put("integer", OBSERVATION + ",\"valueInteger\":%s}");
+        elements.put("positiveInt", OBSERVATION + ",\"valueSampledData\":{\"origin\":{},\"period\":1,"
+                + "\"dimensions\":%s}}");
+        elements.put("unsignedInt", "{\"resourceType\":\"Patient\",\"photo\":[{\"size\":%s}]}");
+        elements.put("boolean", "{\"resourceType\":\"Patient\",\"active\":%s}");
+        elements.put("base64Binary", "{\"resourceType\":\"Patient\",\"photo\":[{\"data\":%s}]}");
+
+        for (Map.Entry<String, String> element : elements.entrySet()) {
+            for (String value : values) {
+                for (String json : List.of(objectMapper.writeValueAsString(value), value)) {
+                    Map<String, Object> data;
+                    try {
+                        data = objectMapper.readValue(element.getValue().formatted(json), new TypeReference<>() {});
+                    } catch (IOException notJson) {
+                        continue;
+                    }
+                    assertEquals(parser.parse(data).isPresent(), VALIDATOR.validate(data).orElseThrow().valid(),
+                            element.getKey() + " " + json);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldReportWhatHapiToleratesAsWarnings() throws IOException {
+        ValidationResult result = validate("{\"resourceType\":\"Observation\",\"status\":\"final\","
+                + "\"subject\":[{\"reference\":\"Patient/1\"}],\"category\":{\"text\":\"c\"},"
+                + "\"valueString\":\"a\",\"valueBoolean\":true,\"component\":[{\"code\":{},\"foo\":1}]}");
+
+        assertTrue(result.valid());
+        assertEquals(List.of(
+                "data.subject: is an array, maximum cardinality is 1",
+                "data.category: must be an array",
+                "data.value[x]: more than one value (valueString, valueBoolean)",
+                "data.component[0].foo: unknown element",
+                "data.code: minimum cardinality 1 not met"), result.warnings());
+    }
+
+    @Test
+    void shouldNameTheInvalidElement() throws IOException {
+        ValidationResult result = validate(OBSERVATION
+                + ",\"component\":[{\"code\":{\"text\":\"a\"}},{\"code\":{\"text\":\"b\"},"
+                + "\"valueQuantity\":{\"value\":\"abc\"}}]}");
+
+        assertFalse(result.valid());
+        assertEquals(List.of("data.component[1].valueQuantity.value: invalid decimal value 'abc'"), result.errors());
+    }
+
+    @Test
+    void shouldLeaveTypesWithoutSchemaToHapi() throws IOException {
+        assertTrue(VALIDATOR.validate(Map.of("resourceType", "Bundle")).isEmpty());
+        assertTrue(VALIDATOR.validate(Map.of("resourceType", "NotAResource")).isEmpty());
+        assertTrue(VALIDATOR.validate(objectMapper.readValue(OBSERVATION
+                + ",\"contained\":[{\"resourceType\":\"Specimen\"}]}", new TypeReference<>() {})).isEmpty());
+    }
+
+    /**
+     * Structural validation vs a HAPI parse, on the sample resources.
+     * Run with -Dfhir.validation.benchmark=true; prints ns per resource for each path.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "fhir.validation.benchmark", matches = "true")
+    void compareValidationPaths() throws IOException {
+        List<Map<String, Object>> resources = sampleResources();
+        Predicate<Map<String, Object>> hapi = data -> parser.parse(data).isPresent();
+        Predicate<Map<String, Object>> structural = data -> VALIDATOR.validate(data).orElseThrow().valid();
+
+        for (int i = 0; i < 5; i++) {
+            measure(hapi, resources, 5_000);
+            measure(structural, resources, 5_000);
+        }
+        double hapiNs = measure(hapi, resources, 50_000);
+        double structuralNs = measure(structural, resources, 50_000);
+        log.info("FHIR validation, {} sample resources: HAPI parse {} ns/op, structural {} ns/op ({}x)",
+                resources.size(), Math.round(hapiNs), Math.round(structuralNs), String.format("%.1f", hapiNs / structuralNs));
+    }
+
+    private static double measure(Predicate<Map<String, Object>> path, List<Map<String, Object>> resources,
+                                  int rounds) {
+        int valid = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            if (path.test(resources.get(i % resources.size()))) {
+                valid++;
+            }
+        }
+        assertEquals(rounds, valid);
+        return (System.nanoTime() - start) / (double) rounds;
+    }
+
+    private ValidationResult validate(String json) throws IOException {
+        Optional<ValidationResult> result = VALIDATOR.validate(objectMapper.readValue(json, new TypeReference<>() {}));
+        return result.orElseThrow();
+    }
+
+    private List<Map<String, Object>> sampleResources() throws IOException {
+        List<Map<String, Object>> events = objectMapper.readValue(
+                new File("artifacts/sample-kafka-events-ebuzima-visit.json"), new TypeReference<>() {});
+        List<Map<String, Object>> resources = new ArrayList<>();
+        for (Map<String, Object> event : events) {
+            if (event.get("data") instanceof Map<?, ?> data) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> resource = (Map<String, Object>) data;
+                resources.add(resource);
+            }
+        }
+        return resources;
+    }
+}
@@ -0,0 +1,86 @@
+package org.openphc.cce.collector.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.api.dto.EventIngestionResponse;
+import org.openphc.cce.collector.domain.model.DeadLetterEvent;
+import org.openphc.cce.collector.domain.model.enums.RejectionReason;
+import org.openphc.cce.collector.service.DeadLetterService;
+import org.openphc.cce.collector.service.EventIngestionService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RawIntakeConsumer.
+ */
+class RawIntakeConsumerTest {
+
+    private final EventIngestionService ingestionService = mock(EventIngestionService.class);
+    private final DeadLetterService deadLetterService = mock(DeadLetterService.class);
+    private final List<List<String>> batches = new ArrayList<>();
+
+    RawIntakeConsumerTest() {
+        when(ingestionService.ingestPolledBatch(any())).thenAnswer(inv -> {
+            List<EventIngestionRequest> batch = inv.getArgument(0);
+            batches.add(batch.stream().map(EventIngestionRequest::getId).toList());
+            return batch.stream()
+                    .map(r -> EventIngestionResponse.builder().eventId(r.getId()).status("accepted").build())
+                    .toList();
+        });
+    }
+
+    @Test
+    void shouldFeedPollThroughBatchPipelineInChunks() {
+        RawIntakeConsumer consumer = new RawIntakeConsumer(ingestionService, deadLetterService, new ObjectMapper(), 2);
+
+        consumer.consume(List.of(record(0, event("evt-1")), record(1, event("evt-2")),
+                record(2, null), record(3, event("evt-3"))));
+
+        assertEquals(List.of(List.of("evt-1", "evt-2"), List.of("evt-3")), batches);
+        verify(ingestionService, never()).ingestBatch(any());
+        verify(deadLetterService, never()).persistAll(any());
+    }
+
+    @Test
+    void shouldDeadLetterUnreadableRecords() {
+        RawIntakeConsumer consumer = new RawIntakeConsumer(ingestionService, deadLetterService, new ObjectMapper(), 10);
+        when(deadLetterService.buildValidationFailure(any(), any(), any(), any(), any(), anyString(),
+                eq(RejectionReason.DESERIALIZATION_ERROR), any(), any(), any()))
+                .thenReturn(new DeadLetterEvent());
+
+        consumer.consume(List.of(record(7, "{not json"), record(8, event("evt-2"))));
+
+        assertEquals(List.of(List.of("evt-2")), batches);
+        verify(deadLetterService).buildValidationFailure(isNull(), isNull(), isNull(), isNull(), isNull(),
+                argThat(raw -> raw.contains("\"offset\":7") && raw.contains("\"raw\":\"{not json\"")),
+                eq(RejectionReason.DESERIALIZATION_ERROR), any(), isNull(), isNull());
+        verify(deadLetterService).persistAll(argThat(list -> list.size() == 1));
+    }
+
+    @Test
+    void shouldPropagateFailureSoPollIsRedelivered() {
+        RawIntakeConsumer consumer = new RawIntakeConsumer(ingestionService, deadLetterService, new ObjectMapper(), 10);
+        doThrow(new IllegalStateException("database unavailable")).when(ingestionService).ingestPolledBatch(any());
+
+        assertThrows(IllegalStateException.class, () -> consumer.consume(List.of(record(0, event("evt-1")))));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String value) {
+        return new ConsumerRecord<>("cce.events.raw", 0, offset, "key",
+                value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    private static String event(String id) {
+        return "{\"specversion\":\"1.0\",\"id\":\"" + id + "\",\"source\":\"openhim\","
+                + "\"type\":\"cce.encounter.created\",\"subject\":\"patient/UPI-1\","
+                + "\"data\":{\"resourceType\":\"Encounter\"}}";
+    }
+}
@@ -159,4 +159,22 @@ class CloudEventValidatorTest {
                 () -> validator.validate(request));
         assertEquals("id", ex.getField());
     }
+
+    @Test
+    void shouldValidateAttributesWithoutData() {
+        EventIngestionRequest request = EventIngestionRequest.builder()
+                .specversion("1.0")
+                .id("evt-001")
+                .source("rhie-mediator")
+                .type("org.openphc.cce.encounter")
+                .build();
+
+        CloudEventValidationException ex = assertThrows(
+                CloudEventValidationException.class,
+                () -> validator.validateAttributes(request));
+        assertEquals("subject", ex.getField());
+
+        request.setSubject("260225-0002-5501");
+        assertDoesNotThrow(() -> validator.validateAttributes(request));
+    }
 }
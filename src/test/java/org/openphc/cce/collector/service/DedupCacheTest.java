@@ -0,0 +1,70 @@
+package org.openphc.cce.collector.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.domain.repository.InboundEventRepository;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DedupCache and its use by DeduplicationService.
+ */
+class DedupCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    @Test
+    void shouldAnswerStoredKeysUntilTheyExpire() {
+        DedupCache cache = new DedupCache("id", 1024, Duration.ofMinutes(10), meterRegistry, clock::get);
+
+        cache.add("src-a", "evt-1");
+        assertTrue(cache.contains("src-a", "evt-1"));
+        assertFalse(cache.contains("src-b", "evt-1"));
+
+        clock.addAndGet(Duration.ofMinutes(11).toMillis());
+        assertFalse(cache.contains("src-a", "evt-1"));
+
+        assertEquals(1.0, meterRegistry.get("cce.collector.dedup.cache.hits").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cce.collector.dedup.cache.misses").functionCounter().count());
+    }
+
+    @Test
+    void shouldStayWithinMaxEntriesByEvicting() {
+        DedupCache cache = new DedupCache("id", 256, Duration.ofHours(1), meterRegistry, clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.add("src", "evt-" + i);
+        }
+
+        assertTrue(cache.size() <= 256);
+        assertTrue(meterRegistry.get("cce.collector.dedup.cache.evictions").functionCounter().count() >= 10_000 - 256);
+        assertTrue(cache.contains("src", "evt-9999"));
+    }
+
+    @Test
+    void shouldSkipDatabaseForCachedKeys() {
+        InboundEventRepository repository = mock(InboundEventRepository.class);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("dedupCache", new DedupCache("id", 1024, Duration.ofHours(1), meterRegistry, clock::get));
+        DeduplicationService service = new DeduplicationService(
+                repository, beans.getBeanProvider(DedupCache.class), beans.getBeanProvider(DedupFilter.class),
+                beans.getBeanProvider(DedupKeyNotifier.class), 30);
+
+        assertFalse(service.isDuplicate("src", "evt-1"));
+        service.remember("src", "evt-1");
+        assertTrue(service.isDuplicate("src", "evt-1"));
+
+        Set<DedupKey> duplicates = service.findDuplicates(Set.of(new DedupKey("src", "evt-1")));
+        assertEquals(Set.of(new DedupKey("src", "evt-1")), duplicates);
+        verify(repository, never()).existsByCloudeventsIdAndSourceAndReceivedAtAfter(any(), any(), any());
+        verify(repository, never()).findByCloudeventsIdInAndReceivedAtAfter(anyCollection(), any());
+    }
+}
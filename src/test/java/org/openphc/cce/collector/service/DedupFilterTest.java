@@ -0,0 +1,104 @@
+package org.openphc.cce.collector.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.domain.repository.InboundEventRepository;
+import org.openphc.cce.collector.domain.repository.InboundEventRepositoryCustom.EventKeyConsumer;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DedupFilter and its use by DeduplicationService.
+ */
+class DedupFilterTest {
+
+    private static final Instant NOW = Instant.parse("2026-02-25T12:00:00Z");
+
+    private final InboundEventRepository repository = mock(InboundEventRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(NOW.toEpochMilli());
+    private final DedupFilter filter = new DedupFilter(repository, 30, 10_000, 0.01, meterRegistry, clock::get);
+
+    @Test
+    void shouldAnswerMaybeUntilLoadedThenRuleOutUnknownKeys() {
+        doAnswer(invocation -> {
+            EventKeyConsumer consumer = invocation.getArgument(1);
+            for (int i = 0; i < 1000; i++) {
+                consumer.accept("src", "evt-" + i, NOW.minus(Duration.ofDays(i % 30)).atOffset(ZoneOffset.UTC));
+            }
+            return null;
+        }).when(repository).streamKeysSince(any(), any());
+
+        assertTrue(filter.mightContain("src", "evt-unknown"));
+
+        filter.load();
+
+        assertTrue(filter.isReady());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("src", "evt-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("src", "new-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 100, "false positives: " + falsePositives);
+        assertTrue(filter.falsePositiveRate() < 0.01);
+        assertTrue(meterRegistry.get("cce.collector.dedup.filter.bytes").gauge().value() > 0);
+    }
+
+    @Test
+    void shouldKeepCombinedFalsePositiveRateWithinTargetWhenEveryDayIsFull() {
+        DedupFilter full = new DedupFilter(repository, 30, 1_000, 0.01, new SimpleMeterRegistry(), clock::get);
+        for (int day = 0; day <= 30; day++) {
+            for (int i = 0; i < 1_000; i++) {
+                full.add("src", "evt-" + day + "-" + i, NOW.minus(Duration.ofDays(day)));
+            }
+        }
+
+        assertEquals(31, full.dayCount());
+        assertTrue(full.falsePositiveRate() < 0.012, "combined rate: " + full.falsePositiveRate());
+    }
+
+    @Test
+    void shouldDropDaysThatLeaveTheWindow() {
+        filter.add("src", "old", NOW.minus(Duration.ofDays(30)));
+        filter.add("src", "new", NOW);
+        filter.add("src", "expired", NOW.minus(Duration.ofDays(31)));
+        assertEquals(2, filter.dayCount());
+
+        clock.addAndGet(Duration.ofDays(1).toMillis());
+        filter.rotate();
+
+        assertEquals(1, filter.dayCount());
+    }
+
+    @Test
+    void shouldSkipDatabaseWhenFilterRulesKeyOut() {
+        filter.load();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("dedupFilter", filter);
+        DeduplicationService service = new DeduplicationService(repository,
+                new StaticListableBeanFactory().getBeanProvider(DedupCache.class),
+                beans.getBeanProvider(DedupFilter.class), beans.getBeanProvider(DedupKeyNotifier.class), 30);
+
+        assertFalse(service.isDuplicate("src", "evt-1"));
+        assertTrue(service.findDuplicates(Set.of(new DedupKey("src", "evt-2"))).isEmpty());
+        verify(repository, never()).existsByCloudeventsIdAndSourceAndReceivedAtAfter(any(), any(), any());
+        verify(repository, never()).findByCloudeventsIdInAndReceivedAtAfter(anyCollection(), any());
+
+        service.remember("src", "evt-1");
+        service.isDuplicate("src", "evt-1");
+        verify(repository).existsByCloudeventsIdAndSourceAndReceivedAtAfter(eq("evt-1"), eq("src"), any());
+    }
+}
@@ -0,0 +1,105 @@
+package org.openphc.cce.collector.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for DedupKeyNotifier — key digests shared between replicas over LISTEN/NOTIFY.
+ */
+class DedupKeyNotifierTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private DedupCache cache() {
+        return new DedupCache("id", 4096, Duration.ofHours(1), new SimpleMeterRegistry(), clock::get);
+    }
+
+    private DedupKeyNotifier notifier(DedupCache cache, int maxPending, String url) {
+        return new DedupKeyNotifier(cache, null, "cce_dedup_keys", Duration.ofMillis(20), maxPending,
+                url, "", "", meterRegistry);
+    }
+
+    @Test
+    void shouldFoldPeerKeysIntoLocalCache() {
+        DedupKeyNotifier sender = notifier(cache(), 10_000, null);
+        DedupCache peerCache = cache();
+        DedupKeyNotifier peer = notifier(peerCache, 10_000, null);
+
+        for (int i = 0; i < 1500; i++) {
+            sender.publish("src", "evt-" + i);
+        }
+        List<String> payloads = sender.drain();
+        payloads.forEach(peer::receive);
+
+        assertEquals(3, payloads.size());
+        assertTrue(payloads.stream().allMatch(payload -> payload.length() < 8000));
+        assertTrue(peerCache.contains("src", "evt-0"));
+        assertTrue(peerCache.contains("src", "evt-1499"));
+        assertFalse(peerCache.contains("src", "evt-1500"));
+        assertTrue(sender.drain().isEmpty());
+    }
+
+    @Test
+    void shouldDropKeysBeyondMaxPending() {
+        DedupKeyNotifier notifier = notifier(cache(), 100, null);
+
+        for (int i = 0; i < 150; i++) {
+            notifier.publish("src", "evt-" + i);
+        }
+
+        assertEquals(1, notifier.drain().size());
+        assertEquals(50.0, meterRegistry.get("cce.collector.dedup.notify.dropped").functionCounter().count());
+    }
+
+    @Test
+    void shouldShareKeysBetweenReplicasThroughPostgres() throws InterruptedException {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")) {
+            postgres.start();
+            DedupCache cacheA = cache();
+            DedupCache cacheB = cache();
+            DedupKeyNotifier replicaA = new DedupKeyNotifier(cacheA, null, "cce_dedup_keys", Duration.ofMillis(20),
+                    1000, postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), meterRegistry);
+            DedupKeyNotifier replicaB = new DedupKeyNotifier(cacheB, null, "cce_dedup_keys", Duration.ofMillis(20),
+                    1000, postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(),
+                    new SimpleMeterRegistry());
+            replicaA.start();
+            replicaB.start();
+            try {
+                awaitConnected();
+                replicaA.publish("src", "evt-1");
+
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (!cacheB.contains("src", "evt-1") && System.nanoTime() < deadline) {
+                    Thread.sleep(20);
+                }
+                assertTrue(cacheB.contains("src", "evt-1"));
+                assertFalse(cacheA.contains("src", "evt-1"), "a replica ignores its own notifications");
+            } finally {
+                replicaA.stop();
+                replicaB.stop();
+            }
+        }
+    }
+
+    private void awaitConnected() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("cce.collector.dedup.notify.connected").gauge().value() < 1
+                && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        // The peer's LISTEN must be in place before anything is sent
+        Thread.sleep(200);
+    }
+}
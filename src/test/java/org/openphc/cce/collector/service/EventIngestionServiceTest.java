@@ -0,0 +1,214 @@
+package org.openphc.cce.collector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.api.dto.EventIngestionResponse;
+import org.openphc.cce.collector.api.exception.FhirValidationException;
+import org.openphc.cce.collector.concurrency.AdaptiveConcurrencyLimiter;
+import org.openphc.cce.collector.concurrency.PipelineStage;
+import org.openphc.cce.collector.concurrency.StripedExecutor;
+import org.openphc.cce.collector.domain.model.DeadLetterEvent;
+import org.openphc.cce.collector.domain.model.enums.InboundStatus;
+import org.openphc.cce.collector.service.EventPersistenceService.PendingEvent;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for EventIngestionService — the shape of the single-event write path.
+ */
+class EventIngestionServiceTest {
+
+    private final FhirPayloadValidator fhirPayloadValidator = mock(FhirPayloadValidator.class);
+    private final DeduplicationService deduplicationService = mock(DeduplicationService.class);
+    private final ResendDetector resendDetector = mock(ResendDetector.class);
+    private final EventPublisher eventPublisher = mock(EventPublisher.class);
+    private final DeadLetterService deadLetterService = mock(DeadLetterService.class);
+    private final EventPersistenceService eventPersistenceService = mock(EventPersistenceService.class);
+
+    private final EventIngestionService service = newService(null);
+
+    private EventIngestionService newService(IngestionStages stages) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        if (stages != null) {
+            beans.addBean("ingestionStages", stages);
+        }
+        return new EventIngestionService(
+                new CloudEventValidator(),
+                fhirPayloadValidator,
+                new EventNormalizer(),
+                deduplicationService,
+                resendDetector,
+                eventPublisher,
+                deadLetterService,
+                eventPersistenceService,
+                beans.getBeanProvider(GroupCommitWriter.class),
+                new SourceRateLimiter(false, false, 1, 1, 1, 1, new MockEnvironment(), new SimpleMeterRegistry()),
+                new ObjectMapper(),
+                "cce.events.inbound",
+                500,
+                beans.getBeanProvider(Executor.class),
+                beans.getBeanProvider(AdaptiveConcurrencyLimiter.class),
+                beans.getBeanProvider(IngestionStages.class),
+                beans.getBeanProvider(StripedExecutor.class),
+                1,
+                Duration.ofSeconds(30),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldWriteAcceptedEventOnceWithFinalStatus() {
+        EventIngestionResponse response = service.ingest(request());
+
+        assertEquals("accepted", response.getStatus());
+        List<PendingEvent> written = capturePersisted();
+        assertEquals(1, written.size());
+        assertEquals(InboundStatus.ACCEPTED, written.get(0).inboundEvent().getStatus());
+        assertNotNull(written.get(0).eventLog());
+        assertNull(written.get(0).deadLetter());
+        verify(eventPublisher).publish(written.get(0).eventLog());
+        verifyNoInteractions(deadLetterService);
+    }
+
+    @Test
+    void shouldWriteFhirRejectAsSingleDeadLetter() {
+        doThrow(new FhirValidationException("FHIR R4 payload validation failed", List.of("bad resource")))
+                .when(fhirPayloadValidator).validate(any());
+        when(deadLetterService.buildValidationFailure(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new DeadLetterEvent());
+
+        assertThrows(FhirValidationException.class, () -> service.ingest(request()));
+
+        List<PendingEvent> written = capturePersisted();
+        assertEquals(1, written.size());
+        assertNull(written.get(0).inboundEvent());
+        assertNull(written.get(0).eventLog());
+        assertNotNull(written.get(0).deadLetter());
+        verify(deadLetterService, never()).persistValidationFailure(
+                any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldStoreCapturedJsonAsRawPayload() {
+        EventIngestionRequest captured = request();
+        captured.setRawJson("{\"id\": \"evt-001\", \"value\": 1.10}");
+
+        service.ingest(captured);
+
+        assertSame(captured.getRawJson(), capturePersisted().get(0).inboundEvent().getRawPayload());
+    }
+
+    @Test
+    void shouldSerializeRawPayloadOnceWhenNotCaptured() throws Exception {
+        EventIngestionRequest request = request();
+
+        service.ingest(request);
+
+        String rawPayload = capturePersisted().get(0).inboundEvent().getRawPayload();
+        assertSame(request.getRawJson(), rawPayload);
+        assertEquals("evt-001", new ObjectMapper().readTree(rawPayload).get("id").asText());
+    }
+
+    @Test
+    void shouldNotWriteDuplicates() {
+        when(deduplicationService.isDuplicate("rhie-mediator", "evt-001")).thenReturn(true);
+
+        assertTrue(service.ingest(request()).isDuplicate());
+
+        verifyNoInteractions(eventPersistenceService, eventPublisher, deadLetterService);
+    }
+
+    @Test
+    void shouldAnswerDuplicateWhenInsertConflicts() {
+        when(eventPersistenceService.persistAll(anyList()))
+                .thenAnswer(invocation -> Set.copyOf(invocation.<List<PendingEvent>>getArgument(0)));
+
+        EventIngestionResponse response = service.ingest(request());
+
+        assertTrue(response.isDuplicate());
+        verify(deduplicationService).remember("rhie-mediator", "evt-001");
+        verifyNoInteractions(eventPublisher, deadLetterService);
+    }
+
+    @Test
+    void shouldAnswerResendAsDuplicateWithoutWriting() {
+        when(resendDetector.isResend(any())).thenReturn(true);
+
+        EventIngestionResponse response = service.ingest(request());
+
+        assertTrue(response.isDuplicate());
+        verifyNoInteractions(eventPersistenceService, eventPublisher, deadLetterService);
+    }
+
+    @Test
+    void shouldRunEachStepOnItsOwnStageWhenStaged() {
+        SimpleMeterRegistry stageRegistry = new SimpleMeterRegistry();
+        try (IngestionStages stages = stages(stageRegistry)) {
+            EventIngestionResponse response = newService(stages).ingest(request());
+
+            assertEquals("accepted", response.getStatus());
+            List<PendingEvent> written = capturePersisted();
+            verify(eventPublisher).publish(written.get(0).eventLog());
+            for (String stage : List.of("validate", "dedup", "fhir", "persist", "publish")) {
+                assertEquals(1, stageRegistry.get("cce.collector.pipeline.service").tag("stage", stage).timer().count(),
+                        stage);
+            }
+        }
+    }
+
+    @Test
+    void shouldRethrowStagedFailuresUnwrapped() {
+        doThrow(new FhirValidationException("FHIR R4 payload validation failed", List.of("bad resource")))
+                .when(fhirPayloadValidator).validate(any());
+        when(deadLetterService.buildValidationFailure(any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new DeadLetterEvent());
+
+        try (IngestionStages stages = stages(new SimpleMeterRegistry())) {
+            EventIngestionService staged = newService(stages);
+            assertThrows(FhirValidationException.class, () -> staged.ingest(request()));
+            assertNotNull(capturePersisted().get(0).deadLetter());
+            verifyNoInteractions(eventPublisher);
+        }
+    }
+
+    private static IngestionStages stages(SimpleMeterRegistry registry) {
+        return new IngestionStages(
+                new PipelineStage("validate", 1, 10, registry),
+                new PipelineStage("dedup", 1, 10, registry),
+                new PipelineStage("fhir", 1, 10, registry),
+                new PipelineStage("persist", 1, 10, registry),
+                new PipelineStage("publish", 1, 10, registry));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PendingEvent> capturePersisted() {
+        ArgumentCaptor<List<PendingEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(eventPersistenceService, times(1)).persistAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private static EventIngestionRequest request() {
+        return EventIngestionRequest.builder()
+                .specversion("1.0")
+                .id("evt-001")
+                .source("rhie-mediator")
+                .type("org.openphc.cce.encounter")
+                .subject("260225-0002-5501")
+                .datacontenttype("application/fhir+json")
+                .data(Map.of("resourceType", "Encounter"))
+                .build();
+    }
+}
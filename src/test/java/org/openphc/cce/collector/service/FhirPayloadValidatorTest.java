@@ -0,0 +1,72 @@
+package org.openphc.cce.collector.service;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.api.exception.FhirValidationException;
+import org.openphc.cce.collector.fhir.FhirProfileValidator;
+import org.openphc.cce.collector.fhir.FhirResourceParser;
+import org.openphc.cce.collector.fhir.FhirResourceValidator;
+import org.openphc.cce.collector.fhir.StructuralFhirValidator;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FhirPayloadValidator: strict mode gives the same verdict in structural and hapi mode.
+ */
+class FhirPayloadValidatorTest {
+
+    private static final FhirContext FHIR_CONTEXT = FhirContext.forR4();
+    private static final StructuralFhirValidator STRUCTURAL =
+            new StructuralFhirValidator(FHIR_CONTEXT, List.of("Encounter"));
+
+    private static final List<String> MODES = List.of("structural", "hapi");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private FhirPayloadValidator strictValidator(String mode) {
+        return new FhirPayloadValidator(
+                new FhirResourceValidator(new FhirResourceParser(FHIR_CONTEXT, objectMapper), STRUCTURAL, mode, false),
+                new StaticListableBeanFactory().getBeanProvider(FhirProfileValidator.class),
+                null, objectMapper, true, true, Duration.ofSeconds(5), 1, new SimpleMeterRegistry());
+    }
+
+    private static EventIngestionRequest request(Map<String, Object> data) {
+        return EventIngestionRequest.builder()
+                .id("evt-1").source("test").subject("260225-0002-5501")
+                .datacontenttype("application/fhir+json")
+                .data(data)
+                .build();
+    }
+
+    @Test
+    void shouldAcceptWhatHapiToleratesInStrictMode() {
+        // Unknown element, missing Encounter.class and an array where one value is allowed
+        Map<String, Object> tolerated = Map.of("resourceType", "Encounter", "status", "finished",
+                "colour", "blue",
+                "period", List.of(Map.of("start", "2026-02-25T10:00:00Z")),
+                "subject", Map.of("reference", "Patient/260225-0002-5501"));
+
+        for (String mode : MODES) {
+            assertDoesNotThrow(() -> strictValidator(mode).validate(request(tolerated)), mode);
+        }
+    }
+
+    @Test
+    void shouldRejectSubjectMismatchInStrictMode() {
+        Map<String, Object> mismatched = Map.of("resourceType", "Encounter", "status", "finished",
+                "class", Map.of("code", "AMB"),
+                "subject", Map.of("reference", "Patient/other"));
+
+        for (String mode : MODES) {
+            assertThrows(FhirValidationException.class, () -> strictValidator(mode).validate(request(mismatched)), mode);
+        }
+    }
+}
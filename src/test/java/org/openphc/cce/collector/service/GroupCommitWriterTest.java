@@ -0,0 +1,143 @@
+package org.openphc.cce.collector.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.domain.model.InboundEvent;
+import org.openphc.cce.collector.service.EventPersistenceService.PendingEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GroupCommitWriter.
+ */
+class GroupCommitWriterTest {
+
+    private final EventPersistenceService persistenceService = mock(EventPersistenceService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GroupCommitWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void shouldCoalesceConcurrentEventsIntoOneTransaction() throws Exception {
+        writer = new GroupCommitWriter(persistenceService, 10, Duration.ofSeconds(1), 100, 1, meterRegistry);
+        writer.start();
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(writer.submit(event("evt-" + i)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        verify(persistenceService, times(1)).persistAll(argThat(events -> events.size() == 10));
+        assertEquals(10.0, meterRegistry.get("cce.collector.groupcommit.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void shouldFlushPartialGroupAfterWindow() throws Exception {
+        writer = new GroupCommitWriter(persistenceService, 100, Duration.ofMillis(5), 100, 1, meterRegistry);
+        writer.start();
+
+        writer.submit(event("evt-1")).get(5, TimeUnit.SECONDS);
+
+        verify(persistenceService).persistAll(argThat(events -> events.size() == 1));
+    }
+
+    @Test
+    void shouldRetryFailedGroupIndividually() throws Exception {
+        writer = new GroupCommitWriter(persistenceService, 2, Duration.ofSeconds(1), 100, 1, meterRegistry);
+        doAnswer(invocation -> {
+            List<PendingEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(e -> "bad".equals(e.inboundEvent().getCloudeventsId()))) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return Set.of();
+        }).when(persistenceService).persistAll(anyList());
+        writer.start();
+
+        CompletableFuture<Boolean> good = writer.submit(event("good"));
+        CompletableFuture<Boolean> bad = writer.submit(event("bad"));
+
+        good.get(5, TimeUnit.SECONDS);
+        CompletionException failure = assertThrows(CompletionException.class, bad::join);
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        verify(persistenceService, times(3)).persistAll(anyList());
+    }
+
+    @Test
+    void shouldCompleteDuplicatesWithFalse() throws Exception {
+        writer = new GroupCommitWriter(persistenceService, 2, Duration.ofSeconds(1), 100, 1, meterRegistry);
+        PendingEvent existing = event("existing");
+        when(persistenceService.persistAll(anyList())).thenReturn(Set.of(existing));
+        writer.start();
+
+        CompletableFuture<Boolean> written = writer.submit(event("new"));
+        CompletableFuture<Boolean> duplicate = writer.submit(existing);
+
+        assertTrue(written.get(5, TimeUnit.SECONDS));
+        assertFalse(duplicate.get(5, TimeUnit.SECONDS));
+        verify(persistenceService, times(1)).persistAll(anyList());
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() {
+        writer = new GroupCommitWriter(persistenceService, 10, Duration.ofMillis(1), 1, 1, meterRegistry);
+        assertThrows(RejectedExecutionException.class, () -> writer.submit(event("not-started")));
+
+        // Started but with no writer threads, so nothing drains the single-slot queue
+        writer = new GroupCommitWriter(persistenceService, 10, Duration.ofMillis(1), 1, 0, meterRegistry);
+        writer.start();
+        writer.submit(event("first"));
+        assertThrows(RejectedExecutionException.class, () -> writer.submit(event("second")));
+    }
+
+    @Test
+    void shouldFailGroupOnErrorAndKeepWriting() throws Exception {
+        writer = new GroupCommitWriter(persistenceService, 2, Duration.ofSeconds(1), 100, 1, meterRegistry);
+        when(persistenceService.persistAll(anyList()))
+                .thenThrow(new OutOfMemoryError("test"))
+                .thenReturn(Set.of());
+        writer.start();
+
+        CompletableFuture<Boolean> first = writer.submit(event("evt-1"));
+        CompletableFuture<Boolean> second = writer.submit(event("evt-2"));
+
+        assertInstanceOf(OutOfMemoryError.class, assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(OutOfMemoryError.class, assertThrows(CompletionException.class, second::join).getCause());
+        assertTrue(writer.submit(event("evt-3")).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldFailEntriesLeftQueuedOnStop() {
+        // No writer threads, so the entry is still queued when stop() returns
+        writer = new GroupCommitWriter(persistenceService, 10, Duration.ofMillis(1), 10, 0, meterRegistry);
+        writer.start();
+        CompletableFuture<Boolean> pending = writer.submit(event("pending"));
+
+        writer.stop();
+
+        CompletionException failure = assertThrows(CompletionException.class, pending::join);
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+    }
+
+    private static PendingEvent event(String id) {
+        return new PendingEvent(InboundEvent.builder().cloudeventsId(id).source("test").build(), null, null);
+    }
+}
@@ -0,0 +1,144 @@
+package org.openphc.cce.collector.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.api.dto.EventIngestionResponse;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for NdjsonIngestionService.
+ */
+class NdjsonIngestionServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final EventIngestionService ingestionService = mock(EventIngestionService.class);
+    private final DeadLetterService deadLetterService = mock(DeadLetterService.class);
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    NdjsonIngestionServiceTest() {
+        when(ingestionService.ingestPacedBatch(any())).thenAnswer(inv -> {
+            List<EventIngestionRequest> batch = inv.getArgument(0);
+            batchSizes.add(batch.size());
+            return batch.stream()
+                    .map(r -> EventIngestionResponse.builder().eventId(r.getId()).status("accepted").build())
+                    .toList();
+        });
+    }
+
+    @Test
+    void shouldIngestInMicroBatchesAndReportLineNumbers() throws Exception {
+        NdjsonIngestionService service = service(2, 1024);
+        String body = event("evt-1") + "\n" + event("evt-2") + "\n\n" + event("evt-3");
+
+        List<JsonNode> results = run(service, body);
+
+        assertEquals(List.of(2, 1), batchSizes);
+        assertEquals(3, results.size());
+        assertEquals("evt-1", results.get(0).get("eventId").asText());
+        assertEquals(1, results.get(0).get("line").asLong());
+        assertEquals(4, results.get(2).get("line").asLong());
+    }
+
+    @Test
+    void shouldRejectMalformedLineAndContinue() throws Exception {
+        NdjsonIngestionService service = service(10, 1024);
+        String body = "{not json\n" + event("evt-2") + "\n";
+
+        List<JsonNode> results = run(service, body);
+
+        assertEquals(2, results.size());
+        assertEquals("rejected", results.get(0).get("status").asText());
+        assertEquals("DESERIALIZATION_ERROR", results.get(0).get("reason").asText());
+        assertEquals("evt-2", results.get(1).get("eventId").asText());
+        verify(deadLetterService).persistValidationFailure(
+                any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldRejectOverlongLineWithoutBufferingIt() throws Exception {
+        NdjsonIngestionService service = service(10, 64);
+        String body = "{\"id\":\"" + "x".repeat(500) + "\"}\n" + event("e") + "\n";
+
+        List<JsonNode> results = run(service, body);
+
+        assertEquals("PAYLOAD_TOO_LARGE", results.get(0).get("reason").asText());
+        assertEquals(2, results.get(1).get("line").asLong());
+    }
+
+    @Test
+    void shouldReadLinesSpanningReadChunks() throws Exception {
+        NdjsonIngestionService service = service(10, 64 * 1024);
+        String padded = "{\"specversion\":\"1.0\",\"id\":\"big\",\"source\":\"s\",\"type\":\"t\","
+                + "\"subject\":\"p\",\"data\":{\"resourceType\":\"Encounter\",\"text\":\"" + "x".repeat(20_000) + "\"}}";
+        String body = event("evt-1") + "\n" + padded + "\n" + event("evt-3");
+
+        List<JsonNode> results = run(service, body);
+
+        assertEquals(3, results.size());
+        assertEquals("big", results.get(1).get("eventId").asText());
+        assertEquals("evt-3", results.get(2).get("eventId").asText());
+    }
+
+    @Test
+    void shouldRejectMicroBatchLargerThanBatchLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new NdjsonIngestionService(ingestionService,
+                deadLetterService, new SourceRateLimiter(false, false, 1, 1, 1, 1, new MockEnvironment(),
+                        new SimpleMeterRegistry()), objectMapper, 501, 500, 1024));
+    }
+
+    @Test
+    void shouldPaceStreamToSourceRateInsteadOfRejecting() throws Exception {
+        // 20 events/s with a 1 s burst: the last 4 of 24 lines wait for tokens
+        SourceRateLimiter limiter = new SourceRateLimiter(true, false, 20, 1, 10, 600,
+                new MockEnvironment(), new SimpleMeterRegistry());
+        NdjsonIngestionService service = new NdjsonIngestionService(ingestionService, deadLetterService, limiter,
+                objectMapper, 10, 500, 1024);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 24; i++) {
+            body.append(event("evt-" + i)).append('\n');
+        }
+
+        long start = System.nanoTime();
+        List<JsonNode> results = run(service, body.toString());
+
+        assertTrue(System.nanoTime() - start >= 150_000_000L, "stream was not paced");
+        assertEquals(24, results.size());
+        assertTrue(results.stream().allMatch(r -> "accepted".equals(r.get("status").asText())));
+        verify(ingestionService, never()).ingestBatch(any());
+    }
+
+    private NdjsonIngestionService service(int microBatchSize, int maxLineBytes) {
+        return new NdjsonIngestionService(ingestionService, deadLetterService,
+                new SourceRateLimiter(false, false, 1, 1, 1, 1, new MockEnvironment(), new SimpleMeterRegistry()),
+                objectMapper, microBatchSize, 500, maxLineBytes);
+    }
+
+    private List<JsonNode> run(NdjsonIngestionService service, String body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+
+    private static String event(String id) {
+        return "{\"specversion\":\"1.0\",\"id\":\"" + id + "\",\"source\":\"s\",\"type\":\"t\","
+                + "\"subject\":\"p\",\"data\":{\"resourceType\":\"Encounter\"}}";
+    }
+}
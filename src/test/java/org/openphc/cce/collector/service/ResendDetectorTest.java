@@ -0,0 +1,114 @@
+package org.openphc.cce.collector.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.domain.repository.EventLogRepository;
+import org.openphc.cce.collector.domain.repository.EventLogRepository.ResendKeyView;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ResendDetector — secondary idempotency by source event id and payload fingerprint.
+ */
+class ResendDetectorTest {
+
+    private final EventLogRepository repository = mock(EventLogRepository.class);
+
+    private ResendDetector detector(String... strategies) {
+        return new ResendDetector(repository, new ObjectMapper(), List.of(strategies), 30,
+                true, 1024, Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldDetectResendBySourceEventIdFromDatabaseThenMemory() {
+        ResendDetector detector = detector("id", "source-event-id");
+        when(repository.existsBySourceAndSourceEventIdAndReceivedAtAfter(eq("emr"), eq("enc-1"), any()))
+                .thenReturn(true);
+
+        assertTrue(detector.isResend(request("evt-2", "enc-1", Map.of("resourceType", "Encounter"))));
+        assertTrue(detector.isResend(request("evt-3", "enc-1", Map.of("resourceType", "Encounter"))));
+        assertFalse(detector.isResend(request("evt-4", "enc-2", Map.of("resourceType", "Encounter"))));
+
+        verify(repository).existsBySourceAndSourceEventIdAndReceivedAtAfter(eq("emr"), eq("enc-1"), any());
+        verify(repository, never()).existsBySourceAndPayloadFingerprintAndReceivedAtAfter(any(), any(), any());
+    }
+
+    @Test
+    void shouldRememberOnlyTheMatchedKeyOfAResend() {
+        ResendDetector detector = detector("source-event-id", "payload");
+        when(repository.existsBySourceAndSourceEventIdAndReceivedAtAfter(eq("emr"), eq("enc-1"), any()))
+                .thenReturn(true);
+        Map<String, Object> data = Map.of("resourceType", "Encounter", "id", "new");
+
+        assertTrue(detector.isResend(request("evt-2", "enc-1", data)));
+        // The resend was never written, so its payload is no key of a stored event
+        assertFalse(detector.isResend(request("evt-3", "enc-2", data)));
+
+        verify(repository).existsBySourceAndPayloadFingerprintAndReceivedAtAfter(eq("emr"), any(), any());
+    }
+
+    @Test
+    void shouldFingerprintPayloadIgnoringKeyOrderAndMeta() {
+        ResendDetector detector = detector("payload");
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("resourceType", "Observation");
+        data.put("status", "final");
+        data.put("meta", Map.of("lastUpdated", "2025-01-01T00:00:00Z"));
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("meta", Map.of("lastUpdated", "2025-01-02T00:00:00Z"));
+        reordered.put("status", "final");
+        reordered.put("resourceType", "Observation");
+
+        EventIngestionRequest first = request("evt-1", null, data);
+        assertFalse(detector.isResend(first));
+        detector.remember(first);
+
+        EventIngestionRequest resend = request("evt-2", null, reordered);
+        assertEquals(first.getPayloadFingerprint(), detector.fingerprint(resend));
+        assertTrue(detector.isResend(resend));
+        assertFalse(detector.isResend(request("evt-3", null, Map.of("resourceType", "Observation", "status", "amended"))));
+        assertNull(detector("id", "source-event-id").fingerprint(request("evt-4", null, data)));
+    }
+
+    @Test
+    void shouldFindResendsInBatchWithOneQueryPerStrategy() {
+        ResendDetector detector = detector("source-event-id", "payload");
+        ResendKeyView stored = mock(ResendKeyView.class);
+        when(stored.getSource()).thenReturn("emr");
+        when(stored.getSourceEventId()).thenReturn("enc-1");
+        when(repository.findBySourceInAndSourceEventIdInAndReceivedAtAfter(anyCollection(), anyCollection(), any()))
+                .thenReturn(List.of(stored));
+
+        EventIngestionRequest storedEarlier = request("evt-1", "enc-1", Map.of("resourceType", "Encounter", "id", "1"));
+        EventIngestionRequest fresh = request("evt-2", "enc-2", Map.of("resourceType", "Encounter", "id", "2"));
+        EventIngestionRequest repeat = request("evt-3", "enc-3", Map.of("resourceType", "Encounter", "id", "2"));
+
+        Set<EventIngestionRequest> resends = detector.findResends(List.of(storedEarlier, fresh, repeat));
+
+        assertEquals(2, resends.size());
+        assertTrue(resends.contains(storedEarlier));
+        assertTrue(resends.contains(repeat));
+        verify(repository).findBySourceInAndSourceEventIdInAndReceivedAtAfter(anyCollection(), anyCollection(), any());
+        verify(repository).findByPayloadFingerprintInAndReceivedAtAfter(anyCollection(), any());
+        verifyNoMoreInteractions(repository);
+    }
+
+    private static EventIngestionRequest request(String id, String sourceEventId, Map<String, Object> data) {
+        EventIngestionRequest request = new EventIngestionRequest();
+        request.setId(id);
+        request.setSource("emr");
+        request.setSourceeventid(sourceEventId);
+        request.setData(data);
+        return request;
+    }
+}
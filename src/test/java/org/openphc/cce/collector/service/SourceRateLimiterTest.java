@@ -0,0 +1,115 @@
+package org.openphc.cce.collector.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SourceRateLimiter.
+ */
+class SourceRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldAllowBurstThenRejectWithWaitTime() {
+        // 10 events/s with a 1 s burst → 10 immediate events
+        SourceRateLimiter limiter = limiter(false, 10, new MockEnvironment());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.tryAcquire("ebuzima/kigali-south", null), "event " + i);
+        }
+        long waitNanos = limiter.tryAcquire("ebuzima/kigali-south", null);
+        assertTrue(waitNanos > 0 && waitNanos <= 100_000_000L, "wait was " + waitNanos);
+        assertEquals(1.0, meterRegistry.get("cce.collector.ratelimit.rejected")
+                .tag("source", "ebuzima/kigali-south").functionCounter().count());
+    }
+
+    @Test
+    void shouldWaitForTokenWithoutCountingRejection() throws Exception {
+        SourceRateLimiter limiter = limiter(false, 20, new MockEnvironment());
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire("backfill", null);
+        }
+
+        long start = System.nanoTime();
+        limiter.acquire("backfill", null);
+
+        assertTrue(System.nanoTime() - start >= 30_000_000L, "acquire did not wait for the next token");
+        assertEquals(0.0, meterRegistry.get("cce.collector.ratelimit.rejected")
+                .tag("source", "backfill").functionCounter().count());
+    }
+
+    @Test
+    void shouldIsolateSources() {
+        SourceRateLimiter limiter = limiter(false, 1, new MockEnvironment());
+
+        assertEquals(0, limiter.tryAcquire("source-a", null));
+        assertTrue(limiter.tryAcquire("source-a", null) > 0);
+        assertEquals(0, limiter.tryAcquire("source-b", null));
+    }
+
+    @Test
+    void shouldLimitPerFacilityWhenEnabled() {
+        SourceRateLimiter limiter = limiter(true, 1, new MockEnvironment());
+
+        assertEquals(0, limiter.tryAcquire("source-a", "FAC-1"));
+        assertEquals(0, limiter.tryAcquire("source-a", "FAC-2"));
+        assertTrue(limiter.tryAcquire("source-a", "FAC-1") > 0);
+        assertNotNull(meterRegistry.find("cce.collector.ratelimit.tokens")
+                .tags("source", "source-a", "facility", "FAC-2").gauge());
+    }
+
+    @Test
+    void shouldApplySourceOverride() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("cce.collector.rate-limit.sources[bulk-loader]", "5");
+        SourceRateLimiter limiter = limiter(false, 1, environment);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("bulk-loader", null));
+        }
+        assertTrue(limiter.tryAcquire("bulk-loader", null) > 0);
+    }
+
+    @Test
+    void shouldPassEverythingWhenDisabled() {
+        SourceRateLimiter limiter = new SourceRateLimiter(false, false, 1, 1, 10, 600,
+                new MockEnvironment(), meterRegistry);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.tryAcquire("source-a", null));
+        }
+    }
+
+    @Test
+    void shouldShareOverflowBucketBeyondMaxBuckets() {
+        SourceRateLimiter limiter = new SourceRateLimiter(true, false, 1, 1, 2, 600,
+                new MockEnvironment(), meterRegistry);
+
+        limiter.tryAcquire("source-a", null);
+        limiter.tryAcquire("source-b", null);
+        assertEquals(0, limiter.tryAcquire("source-c", null));
+        assertTrue(limiter.tryAcquire("source-d", null) > 0, "source-d shares the overflow bucket");
+        assertEquals(3, limiter.bucketCount());
+    }
+
+    @Test
+    void shouldEvictIdleBuckets() throws InterruptedException {
+        SourceRateLimiter limiter = new SourceRateLimiter(true, false, 1000, 1, 10, 0,
+                new MockEnvironment(), meterRegistry);
+        limiter.tryAcquire("source-a", null);
+        Thread.sleep(5); // let the bucket refill past its 1 ms emission interval
+
+        limiter.evictIdleBuckets();
+
+        assertEquals(0, limiter.bucketCount());
+        assertNull(meterRegistry.find("cce.collector.ratelimit.tokens").gauge());
+    }
+
+    private SourceRateLimiter limiter(boolean perFacility, double rate, MockEnvironment environment) {
+        return new SourceRateLimiter(true, perFacility, rate, 1, 10_000, 600, environment, meterRegistry);
+    }
+}
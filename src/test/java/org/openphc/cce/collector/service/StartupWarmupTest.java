@@ -0,0 +1,67 @@
+package org.openphc.cce.collector.service;
+
+import ca.uhn.fhir.context.FhirContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.fhir.FhirProfileValidator;
+import org.openphc.cce.collector.fhir.FhirResourceParser;
+import org.openphc.cce.collector.fhir.FhirResourceValidator;
+import org.openphc.cce.collector.fhir.StructuralFhirValidator;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StartupWarmup.
+ */
+class StartupWarmupTest {
+
+    private static final FhirContext FHIR_CONTEXT = FhirContext.forR4();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StartupWarmup warmup(Resource samples) {
+        FhirResourceParser parser = new FhirResourceParser(FHIR_CONTEXT, objectMapper);
+        return new StartupWarmup(FHIR_CONTEXT, parser, new CloudEventValidator(),
+                new FhirPayloadValidator(new FhirResourceValidator(parser,
+                        new StructuralFhirValidator(FHIR_CONTEXT, List.of("Encounter")), "structural", false),
+                        new StaticListableBeanFactory().getBeanProvider(FhirProfileValidator.class),
+                        null, objectMapper, true, false, Duration.ofSeconds(5), 1, meterRegistry),
+                objectMapper, samples, List.of("Patient", "Encounter"), 2, false, null, meterRegistry);
+    }
+
+    @Test
+    void shouldLoadBundledSampleEvents() throws Exception {
+        List<EventIngestionRequest> events = warmup(new ClassPathResource("fhir/sample-kafka-events-ebuzima-visit.json")).loadSamples();
+
+        assertEquals(11, events.size());
+        assertTrue(events.stream().allMatch(event -> event.getData().containsKey("resourceType")));
+    }
+
+    @Test
+    void shouldTimeEachPhase() {
+        warmup(new ClassPathResource("fhir/sample-kafka-events-ebuzima-visit.json")).run(new DefaultApplicationArguments());
+
+        for (String phase : List.of("definitions", "parse", "validate", "serialize")) {
+            assertEquals(1, meterRegistry.get("cce.collector.startup.warmup").tag("phase", phase).timer().count(),
+                    phase);
+        }
+    }
+
+    @Test
+    void shouldStartColdWhenSamplesAreMissing() {
+        assertDoesNotThrow(() -> warmup(new ClassPathResource("fhir/missing.json"))
+                .run(new DefaultApplicationArguments()));
+
+        assertNull(meterRegistry.find("cce.collector.startup.warmup").timer());
+    }
+}
@@ -0,0 +1,195 @@
+package org.openphc.cce.collector.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.openphc.cce.collector.api.dto.EventIngestionRequest;
+import org.openphc.cce.collector.api.dto.EventIngestionResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Commit/statement count per accepted event on the single-event write path, against a real
+ * PostgreSQL. Requires Docker; skipped otherwise.
+ * <p>
+ * Before the write path was collapsed an accepted event cost 5 commits and 7 statements: the
+ * dedup read, the inbound insert, the inbound status merge (select + update), the event_log
+ * insert, and the publish-status merge (select + update). Now it is 2 commits and 3 statements:
+ * one transaction inserting inbound_event (INSERT ... ON CONFLICT DO NOTHING, which also decides
+ * duplicates, so there is no separate dedup read) and event_log with their final status, and one
+ * publish-status update.
+ */
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "cce.collector.rate-limit.enabled=false",
+        "cce.collector.admission.enabled=false"
+})
+@EmbeddedKafka(partitions = 1)
+@Testcontainers(disabledWithoutDocker = true)
+@Slf4j
+class WritePathCommitBenchmarkTest {
+
+    private static final int EVENTS = 200;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)
+                            ? new CountingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private EventIngestionService ingestionService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void acceptedEventCommitsOnceForBothRows() {
+        // Monthly partitions are pre-created for a fixed range; catch anything outside it
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS event_log_default PARTITION OF event_log DEFAULT");
+        ingestionService.ingest(request("warmup"));
+
+        CountingDataSource counting = (CountingDataSource) dataSource;
+        counting.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            EventIngestionResponse response = ingestionService.ingest(request("evt-" + i));
+            assertFalse(response.isDuplicate());
+        }
+        long elapsedMicros = (System.nanoTime() - start) / 1_000;
+
+        double commitsPerEvent = (double) counting.commits.get() / EVENTS;
+        double statementsPerEvent = (double) counting.statements.get() / EVENTS;
+        log.info("write path: {} events, {} commits/event, {} statements/event, {} us/event",
+                EVENTS, String.format("%.2f", commitsPerEvent), String.format("%.2f", statementsPerEvent),
+                elapsedMicros / EVENTS);
+
+        assertTrue(commitsPerEvent <= 2.0, "commits per event: " + commitsPerEvent);
+        assertTrue(statementsPerEvent <= 3.0, "statements per event: " + statementsPerEvent);
+        assertTrue(ingestionService.ingest(request("evt-0")).isDuplicate());
+    }
+
+    private static EventIngestionRequest request(String id) {
+        EventIngestionRequest request = new EventIngestionRequest();
+        request.setSpecversion("1.0");
+        request.setId(id);
+        request.setSource("benchmark");
+        request.setType("org.openphc.cce.encounter");
+        request.setSubject("patient-" + id);
+        request.setTime("2026-01-15T10:00:00Z");
+        request.setDatacontenttype("application/fhir+json");
+        request.setSourceeventid("src-" + id); // as eBUZIMA events carry one
+        request.setData(Map.of(
+                "resourceType", "Encounter",
+                "id", "enc-" + id,
+                "status", "finished",
+                "class", Map.of("system", "http://terminology.hl7.org/CodeSystem/v3-ActCode", "code", "AMB"),
+                "subject", Map.of("reference", "Patient/patient-" + id)));
+        return request;
+    }
+
+    /**
+     * Counts commits and statement executions across all connections it hands out.
+     */
+    static final class CountingDataSource extends DelegatingDataSource {
+
+        private static final Set<String> EXECUTE_METHODS =
+                Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch");
+
+        final AtomicLong commits = new AtomicLong();
+        final AtomicLong statements = new AtomicLong();
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        void reset() {
+            commits.set(0);
+            statements.set(0);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        private Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if ("commit".equals(method.getName())) {
+                            commits.incrementAndGet();
+                        }
+                        Object result = invoke(connection, method, args);
+                        if (method.getName().startsWith("prepare") || "createStatement".equals(method.getName())) {
+                            return countingStatement(result, method.getReturnType());
+                        }
+                        return result;
+                    });
+        }
+
+        private Object countingStatement(Object statement, Class<?> type) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (EXECUTE_METHODS.contains(method.getName())) {
+                    statements.incrementAndGet();
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}